@@ -0,0 +1,80 @@
+package com.fitnessapp.jmh;
+
+import com.fitnessapp.config.AccessTokenFilter;
+import com.fitnessapp.model.AuthenticatedUser;
+import com.fitnessapp.service.AccessTokenService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+// By myself
+// Per-request cost of the access token filter, outside the HTTP stack: verifying a token and setting the
+// principal (filterWithToken) against a request without a token (filterWithoutToken, the pass-through floor).
+// Compare with WorkoutHotPathBenchmark.userLookup for the lookup a token saves.
+// Run with: mvn -Pjmh verify -Djmh.includes=AccessTokenFilterBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class AccessTokenFilterBenchmark {
+
+    @State(Scope.Thread)
+    public static class Requests {
+        AccessTokenService tokens;
+        AccessTokenFilter filter;
+        String token;
+        MockHttpServletRequest withToken;
+        MockHttpServletRequest withoutToken;
+        MockHttpServletResponse response;
+        FilterChain chain;
+
+        @Setup
+        public void setUp() {
+            tokens = new AccessTokenService("benchmark-secret-0123456789abcdef", 720);
+            filter = new AccessTokenFilter(tokens);
+            token = tokens.issue(42L, "user42");
+            withToken = new MockHttpServletRequest("GET", "/api/workouts/history");
+            withToken.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            withoutToken = new MockHttpServletRequest("GET", "/api/workouts/history");
+            response = new MockHttpServletResponse();
+            chain = (request, response) -> { };
+        }
+    }
+
+    @Benchmark
+    public Object filterWithToken(Requests r) throws Exception {
+        r.filter.doFilter(r.withToken, r.response, r.chain);
+        return r.response;
+    }
+
+    @Benchmark
+    public Object filterWithoutToken(Requests r) throws Exception {
+        r.filter.doFilter(r.withoutToken, r.response, r.chain);
+        return r.response;
+    }
+
+    // HMAC check and parse alone
+    @Benchmark
+    public AuthenticatedUser verify(Requests r) {
+        return r.tokens.verify(r.token);
+    }
+
+    @Benchmark
+    public String issue(Requests r) {
+        return r.tokens.issue(42L, "user42");
+    }
+}
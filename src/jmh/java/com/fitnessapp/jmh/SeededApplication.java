@@ -0,0 +1,114 @@
+package com.fitnessapp.jmh;
+
+import com.fitnessapp.FitnessappApplication;
+import com.fitnessapp.controller.UserController;
+import com.fitnessapp.controller.WorkoutController;
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.model.WorkoutSetRequest;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.WorkoutLogService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// By myself
+// JMH state: the full application on an embedded H2 (MySQL mode, same settings as the tests),
+// seeded once per trial with 200 users, 60 exercises in 6 categories and 500 sets per user.
+// Sets go through WorkoutLogService so the PR index and popularity counters match the rows.
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    static final int USERS = 200;
+    static final int SETS_PER_USER = 500;
+    static final String[] CATEGORIES = {"chest", "back", "legs", "shoulder", "arms", "core"};
+    static final int EXERCISES_PER_CATEGORY = 10;
+
+    ConfigurableApplicationContext context;
+    WorkoutController workoutController;
+    UserController userController;
+
+    final List<String> usernames = new ArrayList<>();
+    final List<Long> exerciseIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(FitnessappApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.globally_quoted_identifiers=true",
+                        "spring.jpa.show-sql=false",
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .run();
+        workoutController = context.getBean(WorkoutController.class);
+        userController = context.getBean(UserController.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+
+        List<Exercise> exercises = new ArrayList<>();
+        for (String category : CATEGORIES) {
+            for (int i = 0; i < EXERCISES_PER_CATEGORY; i++) {
+                Exercise e = new Exercise();
+                e.setName(category + " exercise " + i);
+                e.setCategory(category);
+                exercises.add(e);
+            }
+        }
+        exercises = context.getBean(ExerciseRepository.class).saveAll(exercises);
+        exercises.forEach(e -> exerciseIds.add(e.getId()));
+        Map<Long, Exercise> byId = exercises.stream().collect(Collectors.toMap(Exercise::getId, Function.identity()));
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User u = new User("bench" + i, "password123");
+            u.setHeight(160.0 + i % 30);
+            u.setWeight(60.0 + i % 40);
+            u.setAge(18 + i % 50);
+            u.setGender(i % 2 == 0 ? "Male" : "Female");
+            u.setCreatedAt(LocalDateTime.now());
+            users.add(u);
+        }
+        userRepository.saveAll(users).forEach(u -> usernames.add(u.getUsername()));
+
+        // A year of training per user, skewed towards a handful of favourite exercises
+        WorkoutLogService logService = context.getBean(WorkoutLogService.class);
+        long start = LocalDateTime.now().minusYears(1).toInstant(ZoneOffset.UTC).toEpochMilli();
+        for (User user : userRepository.findAll()) {
+            List<WorkoutSetRequest> sets = new ArrayList<>(SETS_PER_USER);
+            for (int s = 0; s < SETS_PER_USER; s++) {
+                int pick = (int) Math.min(exerciseIds.size() - 1, Math.abs(random.nextGaussian()) * 12);
+                Long exerciseId = exerciseIds.get((pick + user.getId().intValue()) % exerciseIds.size());
+                double weight = 20 + random.nextInt(120) + s / 25.0;
+                sets.add(new WorkoutSetRequest(exerciseId, weight, 5 + random.nextInt(8), 60 + random.nextInt(120),
+                        start + s * 60L * 60 * 1000 * 17));
+            }
+            logService.logSets(UserSnapshot.of(user), sets, byId, LocalDateTime.now());
+        }
+    }
+}
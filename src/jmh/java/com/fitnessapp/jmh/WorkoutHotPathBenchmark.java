@@ -0,0 +1,95 @@
+package com.fitnessapp.jmh;
+
+import com.fitnessapp.model.WorkoutSessionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// By myself
+// Hot paths of the workout and user endpoints, called on the controller beans (no HTTP layer)
+// against the seeded H2 dataset. Run with: mvn -Pjmh verify [-Djmh.includes=WorkoutHotPathBenchmark.history]
+// Results: target/jmh-result.json
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class WorkoutHotPathBenchmark {
+
+    // POST /api/workouts/log: PR check against the best lift index, counters, insert
+    @Benchmark
+    public Object logWorkout(SeededApplication app) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return app.workoutController.logWorkout(username(app), exerciseId(app), 20 + random.nextInt(150),
+                5 + random.nextInt(8), 90, null);
+    }
+
+    // GET /api/workouts/history (full history, ~500 rows)
+    @Benchmark
+    public Object history(SeededApplication app) {
+        return app.workoutController.getUserHistory(username(app), null);
+    }
+
+    // GET /api/workouts/history?exerciseId= (one exercise, heaviest first)
+    @Benchmark
+    public Object historyByExercise(SeededApplication app) {
+        return app.workoutController.getUserHistory(username(app), exerciseId(app));
+    }
+
+    // GET /api/workouts/history/page (first page)
+    @Benchmark
+    public Object historyPage(SeededApplication app) {
+        return app.workoutController.getUserHistoryPage(username(app), null, null, null, null, null);
+    }
+
+    // GET /api/workouts/most-used
+    @Benchmark
+    public Object mostUsed(SeededApplication app) {
+        return app.workoutController.getMostUsedExercises(username(app), category());
+    }
+
+    // GET /api/workouts/popular
+    @Benchmark
+    public Object popular(SeededApplication app) {
+        return app.workoutController.getGlobalPopularExercises(category());
+    }
+
+    // GET /api/workouts/popular-exclude-self
+    @Benchmark
+    public Object popularExcludeSelf(SeededApplication app) {
+        return app.workoutController.getPopularExercisesExcludeSelf(category(), username(app));
+    }
+
+    // GET /api/users/{username}/profile
+    @Benchmark
+    public Object userLookup(SeededApplication app) {
+        return app.userController.getProfile(username(app));
+    }
+
+    // POST /api/workouts/session
+    @Benchmark
+    public Object saveSession(SeededApplication app) {
+        long end = System.currentTimeMillis();
+        return app.workoutController.saveWorkoutSession(new WorkoutSessionRequest(
+                username(app), "00:45:00", 18, 5400.0, 150, 1, end - 45 * 60 * 1000, end));
+    }
+
+    private static String username(SeededApplication app) {
+        return app.usernames.get(ThreadLocalRandom.current().nextInt(app.usernames.size()));
+    }
+
+    private static Long exerciseId(SeededApplication app) {
+        return app.exerciseIds.get(ThreadLocalRandom.current().nextInt(app.exerciseIds.size()));
+    }
+
+    private static String category() {
+        return SeededApplication.CATEGORIES[ThreadLocalRandom.current().nextInt(SeededApplication.CATEGORIES.length)];
+    }
+}
@@ -2,6 +2,7 @@ package com.fitnessapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 // All by myself
@@ -9,7 +10,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 // Main application class
 // Bootstraps Spring Boot application
 // Contains main method
+// Enables scheduled maintenance jobs (e.g. popularity counter reconciliation)
 @SpringBootApplication
+@EnableScheduling
 public class FitnessappApplication {
 
 	public static void main(String[] args) {
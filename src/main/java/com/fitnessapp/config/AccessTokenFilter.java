@@ -0,0 +1,68 @@
+package com.fitnessapp.config;
+
+import com.fitnessapp.model.AuthenticatedUser;
+import com.fitnessapp.service.AccessTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+// All by myself
+// Filter class
+// Reads "Authorization: Bearer <token>" (token from the X-Auth-Token header of /api/auth/login), verifies it
+// in memory and makes its AuthenticatedUser the principal of the request. A token that fails verification
+// is answered with 401; requests without one pass through unauthenticated (SecurityConfig decides whether
+// that is allowed). Users named in adminUsers also get ROLE_ADMIN. Added to the security filter chain by
+// SecurityConfig, not registered on its own.
+public class AccessTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private static final List<GrantedAuthority> ADMIN = AuthorityUtils.createAuthorityList("ROLE_ADMIN");
+
+    private final AccessTokenService accessTokenService;
+    private final Set<String> adminUsers;
+
+    public AccessTokenFilter(AccessTokenService accessTokenService, Set<String> adminUsers) {
+        this.accessTokenService = accessTokenService;
+        this.adminUsers = adminUsers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedUser user = accessTokenService.verify(header.substring(BEARER.length()).trim());
+        if (user == null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null,
+                adminUsers.contains(user.username()) ? ADMIN : AuthorityUtils.NO_AUTHORITIES));
+        SecurityContextHolder.setContext(context);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
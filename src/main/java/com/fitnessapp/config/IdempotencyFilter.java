@@ -0,0 +1,256 @@
+package com.fitnessapp.config;
+
+import com.fitnessapp.model.AuthenticatedUser;
+import com.fitnessapp.service.IdempotencyStore;
+import com.fitnessapp.service.IdempotencyStore.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// All by myself
+// Filter class
+// Idempotency-Key support for the workout writes clients retry on flaky connections.
+// The first request with a key runs normally and its response (anything but a 5xx) is stored;
+// retries with the same key get that response back, marked Idempotent-Replayed, without reaching the
+// controller. Duplicates that arrive while the first is still running wait for it instead of running too.
+// Keys are scoped to the request path and the caller (token user, else the username parameter), so two
+// users picking the same key never see each other's responses. A hash of the method, parameters and body
+// is stored with the response: reusing a key for a different request is answered 422 instead of replayed.
+// Requests without the header are not affected.
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int SC_UNPROCESSABLE_ENTITY = 422;
+    private static final Set<String> PATHS = Set.of("/api/workouts/log", "/api/workouts/log/batch", "/api/workouts/session");
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Value("${fitnessapp.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs; // how long a duplicate waits for the original request to finish
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientKey = request.getHeader(HEADER).trim();
+        if (clientKey.isEmpty() || clientKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String key = scopedKey(request.getRequestURI(), caller(request), clientKey);
+        CachedBodyRequest cached = new CachedBodyRequest(request);
+        String requestHash = requestHash(cached);
+
+        while (true) {
+            Optional<StoredResponse> stored = idempotencyStore.find(key);
+            if (stored.isPresent()) {
+                replay(stored.get(), requestHash, response);
+                return;
+            }
+
+            CompletableFuture<StoredResponse> running = idempotencyStore.claim(key);
+            if (running == null) {
+                handle(key, requestHash, cached, response, chain);
+                return;
+            }
+
+            // Same key in flight: wait and replay its response; if it failed, go round and try ourselves
+            StoredResponse result = await(running);
+            if (result != null) {
+                replay(result, requestHash, response);
+                return;
+            }
+            if (!running.isDone()) {
+                response.setHeader("Retry-After", "1");
+                response.sendError(HttpServletResponse.SC_CONFLICT, "A request with this " + HEADER + " is still in progress");
+                return;
+            }
+        }
+    }
+
+    // We own the key: run the request, capture the response, store it unless it is a server error
+    private void handle(String key, String requestHash, HttpServletRequest request, HttpServletResponse response,
+                        FilterChain chain) throws ServletException, IOException {
+        StoredResponse result = null;
+        try {
+            // A request that finished between our lookup and the claim has already stored its response
+            Optional<StoredResponse> stored = idempotencyStore.find(key);
+            if (stored.isPresent()) {
+                result = stored.get();
+                replay(result, requestHash, response);
+                return;
+            }
+
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() < 500) {
+                result = new StoredResponse(requestHash, wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            idempotencyStore.complete(key, result);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) throws IOException {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a duplicate request", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    // Store key for a client key: path, then a digest of caller and client key so any username fits the column
+    public static String scopedKey(String path, String caller, String clientKey) {
+        MessageDigest digest = sha256();
+        update(digest, caller);
+        update(digest, clientKey);
+        return path + " " + HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Who the key belongs to: the token user if there is one, else the username parameter
+    private static String caller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.username();
+        }
+        String username = request.getParameter("username");
+        return username == null ? "" : username;
+    }
+
+    // Digest of what the request asks for: method, parameters (query and form) and body
+    private static String requestHash(CachedBodyRequest request) {
+        MessageDigest digest = sha256();
+        update(digest, request.getMethod());
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+            update(digest, name);
+            for (String value : values) {
+                update(digest, value);
+            }
+        });
+        digest.update(request.body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        digest.update(part.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Rows stored before the hash existed have none and are replayed as before
+    private static void replay(StoredResponse stored, String requestHash, HttpServletResponse response) throws IOException {
+        if (stored.requestHash() != null && !stored.requestHash().equals(requestHash)) {
+            response.sendError(SC_UNPROCESSABLE_ENTITY, HEADER + " was already used with a different request");
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    // The body is read once up front for the request hash and served again to the controller
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            request.getParameterMap(); // let form bodies be parsed into parameters before the stream is taken
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
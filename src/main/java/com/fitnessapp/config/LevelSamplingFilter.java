@@ -0,0 +1,36 @@
+package com.fitnessapp.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// All by myself
+// Logback filter class
+// Keeps one in every `rate` events at or below `level` (DEBUG by default) and lets everything above through,
+// so turning debug on for the workout path in production does not flood the async appender's queue.
+// Configured in logback-spring.xml; rate 1 keeps every event.
+public class LevelSamplingFilter extends Filter<ILoggingEvent> {
+
+    private Level level = Level.DEBUG;
+    private int rate = 1;
+    private final AtomicLong seen = new AtomicLong();
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rate <= 1 || event.getLevel().toInt() > level.toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        return seen.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.DEBUG);
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,82 @@
+package com.fitnessapp.config;
+
+import com.fitnessapp.model.AuthenticatedUser;
+import com.fitnessapp.service.RateLimiter;
+import com.fitnessapp.service.RateLimiter.Route;
+import com.fitnessapp.service.RateLimiter.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+// All by myself
+// Filter class
+// Applies the RateLimiter to the auth and set logging endpoints: per client IP for both, and per user for
+// /log and /log/batch when the caller has an access token (the token's user, never a username the request
+// merely names, so nobody can use up someone else's bucket). Login is also limited per (IP, username), in
+// AuthController, where the request body has been read. Over the limit: 429 with Retry-After. Runs after the
+// security chain, which has verified the token, and before IdempotencyFilter, so a 429 is never stored as
+// the response of an Idempotency-Key.
+// Behind a proxy, set server.forward-headers-strategy so the client IP is the real one.
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Map<String, Route> ROUTES = Map.of(
+            "/api/auth/login", Route.AUTH,
+            "/api/auth/register", Route.AUTH,
+            "/api/workouts/log", Route.LOG,
+            "/api/workouts/log/batch", Route.LOG);
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !ROUTES.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = ROUTES.get(request.getRequestURI());
+        long waitMillis = rateLimiter.tryAcquire(route, Scope.IP, request.getRemoteAddr());
+        if (waitMillis == 0 && route == Route.LOG) {
+            waitMillis = rateLimiter.tryAcquire(route, Scope.USER, tokenUser());
+        }
+        if (waitMillis > 0) {
+            tooManyRequests(response, waitMillis);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Username of the request's verified access token, or null (no per-user limit) without one
+    private static String tokenUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.username() : null;
+    }
+
+    static void tooManyRequests(HttpServletResponse response, long waitMillis) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(waitMillis)));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, please retry later");
+    }
+
+    // Retry-After is in whole seconds; round up so a client that waits exactly that long gets a token
+    public static long retryAfterSeconds(long waitMillis) {
+        return Math.max(1, (waitMillis + 999) / 1000);
+    }
+}
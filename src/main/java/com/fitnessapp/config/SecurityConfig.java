@@ -1,22 +1,55 @@
 package com.fitnessapp.config;
 
+import com.fitnessapp.service.AccessTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+
+import java.util.Set;
 
 // All by myself
 // Configuration class
+// Callers identify themselves with an access token (see AccessTokenFilter); the workout and user APIs
+// answer 401 without one. fitnessapp.auth.require-token=false is only a migration override for clients
+// that do not send tokens yet: requests without one are then trusted with the username they name.
+// /api/admin/** (rebuilds of derived tables) always needs the token of a user in fitnessapp.auth.admin-users.
 @Configuration
 public class SecurityConfig {
 
+    private static final String[] USER_APIS = {"/api/workouts/**", "/api/users/**"};
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Value("${fitnessapp.auth.require-token:true}")
+    private boolean requireToken;
+
+    @Value("${fitnessapp.auth.admin-users:}")
+    private Set<String> adminUsers;
+
     // Define security filter chain
     @Bean
 public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
     http
         .csrf(csrf -> csrf.disable())// disable CSRF protection
-        .authorizeHttpRequests(auth -> auth
-            .requestMatchers(
+        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))// identity comes from the token
+        .addFilterBefore(new AccessTokenFilter(accessTokenService, adminUsers), AnonymousAuthenticationFilter.class)
+        .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+        .authorizeHttpRequests(auth -> {
+            auth.requestMatchers("/api/admin/**").hasRole("ADMIN");
+            if (requireToken) {
+                auth.requestMatchers(USER_APIS).authenticated();
+            } else {
+                auth.requestMatchers(USER_APIS).permitAll(); // migration override: callers without a token
+            }
+            auth.requestMatchers(
                 "/", 
                 "/register-login.html",
                 "/main.html",
@@ -27,11 +60,12 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
                 "/img/**",
                 "/api/auth/**", 
                 "/api/exercises/**",
-                "/api/workouts/**",
-                "/api/users/**"
+                "/actuator/health",
+                "/actuator/metrics/**",
+                "/actuator/prometheus"
             ).permitAll()
-            .anyRequest().authenticated()
-        );
+            .anyRequest().authenticated();
+        });
     return http.build();
 }
 
@@ -0,0 +1,74 @@
+package com.fitnessapp.controller;
+
+import com.fitnessapp.model.PopularityReconciliation;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.ExercisePopularityService;
+import com.fitnessapp.service.PersonalRecordService;
+import com.fitnessapp.service.ProgressionService;
+import com.fitnessapp.service.TrainingRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// All by myself
+// Controller class
+// Maintenance of the tables derived from the workout rows, and the list of all users. Each call rewrites a
+// whole table or reads every account, so it is only open to access tokens of users listed in
+// fitnessapp.auth.admin-users (see SecurityConfig).
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PersonalRecordService personalRecordService; // Best lift index
+
+    @Autowired
+    private TrainingRollupService trainingRollupService; // Daily/weekly training rollups for charts
+
+    @Autowired
+    private ProgressionService progressionService; // Running e1RM progression per exercise
+
+    @Autowired
+    private ExercisePopularityService exercisePopularityService; // Materialized popularity counters
+
+    // All users, without their password hashes
+    @GetMapping("/users")
+    public List<UserSnapshot> getAllUsers() {
+        return userRepository.findAll().stream().map(UserSnapshot::of).toList();
+    }
+
+    // Rebuild the best lift index from existing workout rows
+    @PostMapping("/pr-index/rebuild")
+    public String rebuildPersonalRecordIndex() {
+        int entries = personalRecordService.rebuild();
+        return "PR index rebuilt: " + entries + " entries";
+    }
+
+    // Recompute the training rollups from existing workout rows
+    @PostMapping("/rollups/rebuild")
+    public String rebuildTrainingRollups() {
+        TrainingRollupService.Rebuilt rebuilt = trainingRollupService.rebuild();
+        return "Training rollups rebuilt: " + rebuilt.dailyRows() + " daily rows, " + rebuilt.weeklyRows() + " weekly rows";
+    }
+
+    // Recompute the e1RM progression state from existing workout rows
+    @PostMapping("/progression/rebuild")
+    public String rebuildProgression() {
+        int rows = progressionService.rebuild();
+        return "Progression rebuilt: " + rows + " entries";
+    }
+
+    // Recompute popularity counters from workout rows and report any drift (also runs nightly)
+    @PostMapping("/popularity/reconcile")
+    public PopularityReconciliation reconcilePopularity() {
+        return exercisePopularityService.reconcile();
+    }
+}
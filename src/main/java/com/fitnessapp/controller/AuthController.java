@@ -1,8 +1,21 @@
 package com.fitnessapp.controller;
 
+import com.fitnessapp.config.RateLimitFilter;
 import com.fitnessapp.model.User;
 import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.AccessTokenService;
+import com.fitnessapp.service.ActivityMetrics;
+import com.fitnessapp.service.LastLoginTracker;
+import com.fitnessapp.service.PasswordHasher;
+import com.fitnessapp.service.RateLimiter;
+import com.fitnessapp.service.UserDirectory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,9 +29,34 @@ import java.time.LocalDateTime;
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
+    public static final String TOKEN_HEADER = "X-Auth-Token"; // Access token in the login response
+
     @Autowired
     private UserRepository userRepository;// User repository for accessing user data
 
+    @Autowired
+    private UserDirectory userDirectory; // Cached username lookups (no passwords)
+
+    @Autowired
+    private LastLoginTracker lastLoginTracker; // Buffered last-login writes
+
+    @Autowired
+    private ActivityMetrics activityMetrics; // Failed login counter
+
+    @Autowired
+    private PasswordHasher passwordHasher; // BCrypt on a bounded pool
+
+    @Autowired
+    private AccessTokenService accessTokenService; // Signed access tokens handed out at login
+
+    @Autowired
+    private RateLimiter rateLimiter; // Login attempts per (IP, username); per IP alone is done by RateLimitFilter
+
+    @Value("${fitnessapp.auth.retry-after-seconds:1}")
+    private int retryAfterSeconds; // Sent with 503 when the hashing pool is saturated
+
     // Register request DTO
     public static class RegisterRequest {
         private String username;
@@ -71,14 +109,14 @@ public class AuthController {
             }
 
             // Check if username already exists
-            if (userRepository.findByUsername(request.getUsername()) != null) {
+            if (userDirectory.find(request.getUsername()) != null) {
                 return ResponseEntity.badRequest().body("Username already exists");
             }
 
             // Create new user
             User user = new User();
             user.setUsername(request.getUsername());
-            user.setPassword(request.getPassword());
+            user.setPassword(passwordHasher.hash(request.getPassword()));
             user.setEmail(request.getEmail());
             user.setNickname(request.getNickname());
             user.setAge(request.getAge());
@@ -92,28 +130,55 @@ public class AuthController {
             userRepository.save(user);
             return ResponseEntity.ok("Registration successful");
             
+        } catch (PasswordHasher.Saturated e) {
+            return busy();
         } catch (Exception e) {
-            System.err.println("Registration failed: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Registration failed: username={}", request.getUsername(), e);
             return ResponseEntity.badRequest().body("Registration failed: " + e.getMessage());
         }
     }
 
     @PostMapping("/login")// Login user
-    public ResponseEntity<String> loginUser(@RequestBody User user) {
+    public ResponseEntity<String> loginUser(@RequestBody User user, HttpServletRequest request) {
+        // Checked before the password so guessing at one account costs no BCrypt or database work once limited.
+        // Keyed by IP as well: a bucket per username alone would let anyone lock its owner out.
+        String client = user.getUsername() == null ? null : request.getRemoteAddr() + " " + user.getUsername();
+        long waitMillis = rateLimiter.tryAcquire(RateLimiter.Route.AUTH, RateLimiter.Scope.USER, client);
+        if (waitMillis > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimitFilter.retryAfterSeconds(waitMillis)))
+                    .body("Too many login attempts, please retry later");
+        }
         try {
+            // Password check needs the entity; the directory cache never holds passwords
             User existingUser = userRepository.findByUsername(user.getUsername());
-            if (existingUser == null || !existingUser.getPassword().equals(user.getPassword())) {
+            if (existingUser == null || !passwordHasher.matches(user.getPassword(), existingUser.getPassword())) {
+                activityMetrics.loginFailed();
                 return ResponseEntity.badRequest().body("Invalid username or password");
             }
-            // Update last login time
-            existingUser.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(existingUser);
-            return ResponseEntity.ok("Login successful");
+            // Plaintext or weaker hash from before: replace it now that we know the password
+            if (passwordHasher.needsRehash(existingUser.getPassword())) {
+                existingUser.setPassword(passwordHasher.hash(user.getPassword()));
+                userRepository.save(existingUser);
+            }
+            // Update last login time (written in batches by the tracker, not per login)
+            lastLoginTracker.record(existingUser.getUsername());
+            // Clients send it back as "Authorization: Bearer <token>" (see AccessTokenFilter)
+            return ResponseEntity.ok()
+                    .header(TOKEN_HEADER, accessTokenService.issue(existingUser.getId(), existingUser.getUsername()))
+                    .body("Login successful");
+        } catch (PasswordHasher.Saturated e) {
+            return busy();
         } catch (Exception e) {
-            System.err.println("Login failed: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Login failed: username={}", user.getUsername(), e);
             return ResponseEntity.badRequest().body("Login failed: " + e.getMessage());
         }
     }
+
+    // Hashing pool saturated: ask the client to come back shortly instead of queueing without bound
+    private ResponseEntity<String> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("Server busy, please retry");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.fitnessapp.controller;
+
+import com.fitnessapp.model.AuthenticatedUser;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.service.UserDirectory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+// All by myself
+// Helper class
+// Who a request comes from, as put in the security context by AccessTokenFilter. Requests with a token may
+// only act for the user it was issued to; requests without one keep naming the user by parameter.
+final class Callers {
+
+    private Callers() {
+    }
+
+    // User of the request's access token, or null if it had none
+    static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user ? user : null;
+    }
+
+    // 403 if the request has a token of another user than the one it names
+    static void requireSelf(String username) {
+        AuthenticatedUser caller = current();
+        if (caller != null && !caller.username().equals(username)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access token belongs to another user");
+        }
+    }
+
+    // User a write acts for: straight from the token when it names this user (no lookup), else from the
+    // directory; null if there is no such user
+    static UserSnapshot resolve(UserDirectory userDirectory, String username) {
+        AuthenticatedUser caller = current();
+        if (caller != null && caller.username().equals(username)) {
+            return caller.toSnapshot();
+        }
+        return userDirectory.find(username);
+    }
+}
@@ -1,26 +1,60 @@
 package com.fitnessapp.controller;
 
 import com.fitnessapp.model.Exercise;
-import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.service.ExerciseCatalog;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
  
 // All by myself
 // Controller class
-// Handles exercise-related requests
+// Handles exercise-related requests (served from the in-memory catalog snapshot)
 @RestController
 @RequestMapping("/api/exercises")
 public class ExerciseController {
 
     @Autowired
-    private ExerciseRepository exerciseRepository;// Exercise repository for accessing exercise data
+    private ExerciseCatalog exerciseCatalog;// In-memory exercise catalog
 
+    @Value("${fitnessapp.exercises.max-age-seconds:60}")
+    private long maxAgeSeconds; // How long browsers may reuse the list before revalidating
 
-    // Get all exercises
+
+    // Get all exercises.
+    // Carries a strong ETag; Spring answers a matching If-None-Match with 304 Not Modified.
     @GetMapping
-    public List<Exercise> getAll() {
-        return exerciseRepository.findAll();
+    public ResponseEntity<List<Exercise>> getAll() {
+        ExerciseCatalog.Snapshot snapshot = exerciseCatalog.snapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(cacheControl())
+                .body(snapshot.all());
+    }
+
+    // Get exercises of one category
+    @GetMapping("/category/{category}")
+    public ResponseEntity<List<Exercise>> getByCategory(@PathVariable String category) {
+        ExerciseCatalog.Snapshot snapshot = exerciseCatalog.snapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(cacheControl())
+                .body(snapshot.byCategory().getOrDefault(category, List.of()));
+    }
+
+    // Get one exercise by id
+    @GetMapping("/{id}")
+    public ResponseEntity<Exercise> getById(@PathVariable Long id) {
+        return exerciseCatalog.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).mustRevalidate();
     }
-}
\ No newline at end of file
+}
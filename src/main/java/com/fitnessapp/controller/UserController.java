@@ -1,13 +1,15 @@
 package com.fitnessapp.controller;
 
 import com.fitnessapp.model.User;
+import com.fitnessapp.model.UserSnapshot;
 import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.LastLoginTracker;
+import com.fitnessapp.service.UserDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 // All by myself
 // Controller class
@@ -19,35 +21,41 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDirectory userDirectory; // Cached reads; writes go through the repository
+
+    @Autowired
+    private LastLoginTracker lastLoginTracker; // Buffered last-login writes
+
     // Initialize user (auto-creation disabled; instruct to use registration endpoint)
     @PostMapping("/{username}/init")
     public ResponseEntity<String> initUser(@PathVariable String username) {
-        User existingUser = userRepository.findByUsername(username);
-        if (existingUser != null) {
+        Callers.requireSelf(username);
+        if (userDirectory.find(username) != null) {
             return ResponseEntity.ok("User already exists");
         }
         return ResponseEntity.status(400).body("Please create an account via: /api/auth/register");
     }
 
-    // Get all users
-    @GetMapping
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
-    }
-
     // Get user by username
     @GetMapping("/{username}")
     public User getUserByUsername(@PathVariable String username) {
-        return userRepository.findByUsername(username);
+        Callers.requireSelf(username);
+        UserSnapshot user = userDirectory.find(username);
+        if (user == null) {
+            return null;
+        }
+        User profile = user.toProfile();
+        profile.setLastLoginAt(lastLoginTracker.lastLoginAt(username, user.lastLoginAt()));
+        return profile;
     }
 
     // Update user's last login time
     @PutMapping("/{username}/last-login")
     public String updateLastLogin(@PathVariable String username) {
-        User user = userRepository.findByUsername(username);
-        if (user != null) {
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
+        Callers.requireSelf(username);
+        if (userDirectory.find(username) != null) {
+            lastLoginTracker.record(username);
             return "Last login time updated successfully";
         }
         return "User not found";
@@ -56,19 +64,22 @@ public class UserController {
     // Get user statistics
     @GetMapping("/{username}/stats")
     public Object getUserStats(@PathVariable String username) {
-        User user = userRepository.findByUsername(username);
+        Callers.requireSelf(username);
+        UserSnapshot user = userDirectory.find(username);
         if (user == null) {
             return "User not found";
         }
         
         // Add more user statistics here as needed
         record Stats(String username, String nickname, LocalDateTime createdAt, LocalDateTime lastLoginAt) {}
-        return new Stats(user.getUsername(), user.getNickname(), user.getCreatedAt(), user.getLastLoginAt());
+        return new Stats(user.username(), user.nickname(), user.createdAt(),
+                lastLoginTracker.lastLoginAt(username, user.lastLoginAt()));
     }
 
     // Update user profile (user must exist)
     @PutMapping("/{username}/profile")
     public ResponseEntity<String> updateProfile(@PathVariable String username, @RequestBody User profileData) {
+        Callers.requireSelf(username);
         User user = userRepository.findByUsername(username);
         if (user == null) {
             return ResponseEntity.status(404).body("User not found, please register first");
@@ -101,10 +112,13 @@ public class UserController {
     // Get full user profile (including health data; user must exist)
     @GetMapping("/{username}/profile")
     public ResponseEntity<Object> getProfile(@PathVariable String username) {
-        User user = userRepository.findByUsername(username);
-        if (user == null) {
+        Callers.requireSelf(username);
+        UserSnapshot snapshot = userDirectory.find(username);
+        if (snapshot == null) {
             return ResponseEntity.status(404).body("User not found, please register first");
         }
+        User user = snapshot.toProfile(); // detached copy, only used for the BMI/BMR helpers
+        user.setLastLoginAt(lastLoginTracker.lastLoginAt(username, snapshot.lastLoginAt()));
 
         // Use record for a clean DTO to avoid unused field warnings on anonymous classes
         record ProfileDTO(
@@ -2,21 +2,61 @@ package com.fitnessapp.controller;
 
 import com.fitnessapp.model.Workout;
 import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.HistoryCursor;
+import com.fitnessapp.model.JournaledSet;
+import com.fitnessapp.model.ProgressionView;
+import com.fitnessapp.model.SessionStart;
+import com.fitnessapp.model.TrainingSeries;
+import com.fitnessapp.model.TrendingExercise;
 import com.fitnessapp.model.User;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.model.WorkoutBatchResult;
+import com.fitnessapp.model.WorkoutHistoryPage;
+import com.fitnessapp.model.WorkoutJournalStatus;
+import com.fitnessapp.model.WorkoutReceipt;
+import com.fitnessapp.model.WorkoutSetRequest;
+import com.fitnessapp.model.WorkoutView;
 import com.fitnessapp.model.WorkoutSessionRequest;
 import com.fitnessapp.model.WorkoutSession;
 import com.fitnessapp.repository.ExerciseRepository;
 import com.fitnessapp.repository.WorkoutRepository;
 import com.fitnessapp.repository.WorkoutSessionRepository;
 import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.ActivityMetrics;
+import com.fitnessapp.service.ExerciseCatalog;
+import com.fitnessapp.service.ExercisePopularityService;
+import com.fitnessapp.service.ProgressionService;
+import com.fitnessapp.service.SessionAccumulator;
+import com.fitnessapp.service.TrainingLogExportService;
+import com.fitnessapp.service.TrainingRollupService;
+import com.fitnessapp.service.UserDirectory;
+import com.fitnessapp.service.WorkoutLogService;
+import com.fitnessapp.service.WorkoutWriteBehind;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 // All by myself
 // Controller class
@@ -25,6 +65,12 @@ import java.util.Random;
 @RequestMapping("/api/workouts")
 public class WorkoutController {
 
+    private static final Logger log = LoggerFactory.getLogger(WorkoutController.class);
+
+    // Answered with 409 to sets logged with a session id that was never issued to this user or has expired:
+    // they would be missing from the session's server totals. An empty id means no session.
+    private static final String UNKNOWN_SESSION = "Unknown or expired session, start a new one";
+
     @Autowired
     private WorkoutRepository workoutRepository;// Workout repository for accessing workout data
 
@@ -34,9 +80,52 @@ public class WorkoutController {
     @Autowired
     private UserRepository userRepository;// User repository for accessing user data
 
+    @Autowired
+    private ExerciseCatalog exerciseCatalog; // In-memory exercise catalog (no query per lookup)
+
+    @Autowired
+    private UserDirectory userDirectory; // Cached username -> user lookups
+
+    @Autowired
+    private ActivityMetrics activityMetrics; // Business counters (PRs, sessions)
+
     @Autowired
     private WorkoutSessionRepository workoutSessionRepository; // Workout session repository
 
+    @Autowired
+    private WorkoutLogService workoutLogService; // Writes sets and maintains the PR index
+
+    @Autowired
+    private TrainingLogExportService trainingLogExportService; // Streaming NDJSON export
+
+    @Autowired
+    private ExercisePopularityService exercisePopularityService; // Materialized popularity counters
+
+    @Autowired
+    private SessionAccumulator sessionAccumulator; // Running totals of open workout sessions
+
+    @Autowired
+    private TrainingRollupService trainingRollupService; // Daily/weekly training rollups for charts
+
+    @Autowired
+    private ProgressionService progressionService; // Running e1RM progression per exercise
+
+    @Autowired(required = false)
+    private WorkoutWriteBehind workoutWriteBehind; // Present only when fitnessapp.workouts.write-behind.enabled=true
+
+    @Value("${fitnessapp.workouts.max-batch-size:1000}")
+    private int maxBatchSize; // Upper bound on sets accepted by /log/batch
+
+    @Value("${fitnessapp.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${fitnessapp.history.max-page-size:200}")
+    private int maxPageSize; // Page size cap for /history/page
+
+    // Open bounds for history paging (both fit MySQL DATETIME)
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     // Test database connection
     @GetMapping("/test")
     public ResponseEntity<String> testConnection() {
@@ -57,47 +146,110 @@ public class WorkoutController {
                                @RequestParam Long exerciseId,
                                @RequestParam double weight,
                                @RequestParam int reps,
-                               @RequestParam(required = false, defaultValue = "0") int restSeconds) {
+                               @RequestParam(required = false, defaultValue = "0") int restSeconds,
+                               @RequestParam(required = false) String sessionId) {
+        Callers.requireSelf(username);
         try {
-            System.out.println("Received workout log request: username=" + username + ", exerciseId=" + exerciseId + ", weight=" + weight + ", reps=" + reps);
+            log.debug("Log workout request: username={}, exerciseId={}, weight={}, reps={}", username, exerciseId, weight, reps);
             
-            Optional<Exercise> exerciseOpt = exerciseRepository.findById(exerciseId);
+            Optional<Exercise> exerciseOpt = exerciseCatalog.findById(exerciseId);
             if (exerciseOpt.isEmpty()) {
-                System.out.println("Exercise not found: " + exerciseId);
+                log.debug("Exercise not found: {}", exerciseId);
                 return ResponseEntity.badRequest().body("Exercise not found. Please initialize exercise library first");
             }
 
             Exercise exercise = exerciseOpt.get();
-            System.out.println("Found exercise: " + exercise.getName());
-            
-            List<Workout> history = workoutRepository.findByUsernameAndExerciseOrderByWeightDesc(username, exercise);
-            boolean isPR = history.isEmpty() || weight > history.get(0).getWeight();
 
-            // Find existing registered user (no implicit creation)
-            User user = userRepository.findByUsername(username);
+            // Find existing registered user (no implicit creation); a token already says who it is
+            UserSnapshot user = Callers.resolve(userDirectory, username);
             if (user == null) {
                 return ResponseEntity.badRequest().body("User not found, please register first");
             }
+            if (sessionId != null && !sessionId.isEmpty() && !sessionAccumulator.isOpen(sessionId, username)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(UNKNOWN_SESSION);
+            }
+
+            // Write-behind mode: journal the set and acknowledge; the drain writes it and sets the PR flag
+            if (workoutWriteBehind != null) {
+                JournaledSet queued = workoutWriteBehind.append(user, exercise, weight, reps, restSeconds, sessionId);
+                if (queued == null) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .body("Workout journal is full, please retry");
+                }
+                log.debug("Workout journaled: sequence={}", queued.sequence());
+                return ResponseEntity.accepted().body(WorkoutReceipt.of(queued, exercise));
+            }
 
-            Workout workout = new Workout();
-            workout.setUsername(username);
-            workout.setUser(user);
-            workout.setExercise(exercise);
-            workout.setWeight(weight);
-            workout.setReps(reps);
-            workout.setTimestamp(LocalDateTime.now());
-            workout.setPersonalRecord(isPR);
-            workout.setRestSeconds(restSeconds);
-            workout.setDuration(0); // Set default workout duration to 0 seconds
-
-            System.out.println("Preparing to save workout: " + workout.toString());
-            Workout savedWorkout = workoutRepository.save(workout);
-            System.out.println("Workout saved successfully: " + savedWorkout.getId());
-            return ResponseEntity.ok(savedWorkout);
+            // PR detection and insert happen in one transaction against the best lift index
+            Workout savedWorkout = workoutLogService.logSet(user, exercise, weight, reps, restSeconds, LocalDateTime.now(), sessionId);
+            log.debug("Workout saved: id={}, personalRecord={}", savedWorkout.getId(), savedWorkout.isPersonalRecord());
+            return ResponseEntity.ok(WorkoutView.of(savedWorkout, exercise));
             
         } catch (Exception e) {
-            System.err.println("Error saving workout: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Logging workout failed: username={}, exerciseId={}", username, exerciseId, e);
+            return ResponseEntity.badRequest().body("Logging failed: " + e.getMessage());
+        }
+    }
+
+    // Write-behind progress (only in write-behind mode): a receipt's set is stored once its sequence <= appliedThrough
+    @GetMapping("/log/journal")
+    public ResponseEntity<WorkoutJournalStatus> getJournalStatus() {
+        if (workoutWriteBehind == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(workoutWriteBehind.status());
+    }
+
+    // Log a batch of sets for one user in a single request (bulk import / offline sync)
+    @PostMapping("/log/batch")
+    public ResponseEntity<?> logWorkoutBatch(@RequestParam String username, @RequestBody List<WorkoutSetRequest> sets,
+                                             @RequestParam(required = false) String sessionId) {
+        Callers.requireSelf(username);
+        try {
+            if (sets == null || sets.isEmpty()) {
+                return ResponseEntity.badRequest().body("No sets to log");
+            }
+            if (sets.size() > maxBatchSize) {
+                return ResponseEntity.badRequest().body("Too many sets in one batch (max " + maxBatchSize + ")");
+            }
+
+            UserSnapshot user = Callers.resolve(userDirectory, username);
+            if (user == null) {
+                return ResponseEntity.badRequest().body("User not found, please register first");
+            }
+            if (sessionId != null && !sessionId.isEmpty() && !sessionAccumulator.isOpen(sessionId, username)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(UNKNOWN_SESSION);
+            }
+
+            // Resolve every referenced exercise from the catalog snapshot
+            Map<Long, Exercise> exercises = new HashMap<>();
+            Set<Long> missing = new HashSet<>();
+            for (WorkoutSetRequest set : sets) {
+                if (set.getExerciseId() == null) {
+                    return ResponseEntity.badRequest().body("Exercise id cannot be empty");
+                }
+                exerciseCatalog.findById(set.getExerciseId()).ifPresentOrElse(
+                        exercise -> exercises.put(exercise.getId(), exercise),
+                        () -> missing.add(set.getExerciseId()));
+            }
+            if (!missing.isEmpty()) {
+                return ResponseEntity.badRequest().body("Exercise not found: " + missing);
+            }
+
+            // In write-behind mode sets acknowledged earlier go in first, so PR flags stay in order
+            List<Workout> saved = workoutWriteBehind != null
+                    ? workoutWriteBehind.afterDrain(() -> workoutLogService.logSets(user, sets, exercises, LocalDateTime.now(), sessionId))
+                    : workoutLogService.logSets(user, sets, exercises, LocalDateTime.now(), sessionId);
+            List<Long> ids = saved.stream().map(Workout::getId).toList();
+            int prs = (int) saved.stream().filter(Workout::isPersonalRecord).count();
+            return ResponseEntity.ok(new WorkoutBatchResult(saved.size(), prs, ids));
+        } catch (WorkoutWriteBehind.Backlogged e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Earlier sets are still being written, please retry");
+        } catch (Exception e) {
+            log.warn("Logging workout batch failed: username={}, sets={}", username, sets == null ? 0 : sets.size(), e);
             return ResponseEntity.badRequest().body("Logging failed: " + e.getMessage());
         }
     }
@@ -120,7 +272,7 @@ public class WorkoutController {
         }
         
         // Get some exercises
-        List<Exercise> exercises = exerciseRepository.findAll();
+        List<Exercise> exercises = exerciseCatalog.all();
         if (exercises.isEmpty()) {
             return "No exercises found. Please initialize exercises first.";
         }
@@ -139,65 +291,174 @@ public class WorkoutController {
                 Exercise exercise = exercises.get(random.nextInt(exercises.size()));
                 double weight = 50 + random.nextInt(50); // 50-100kg
                 int reps = 5 + random.nextInt(10); // 5-15 reps
-                
-                // Check if PR
-                List<Workout> history = workoutRepository.findByUsernameAndExerciseOrderByWeightDesc(username, exercise);
-                boolean isPR = history.isEmpty() || weight > history.get(0).getWeight();
-                
-                Workout workout = new Workout();
-                workout.setUsername(username);
-                workout.setUser(user);
-                workout.setExercise(exercise);
-                workout.setWeight(weight);
-                workout.setReps(reps);
-                workout.setTimestamp(date);
-                workout.setPersonalRecord(isPR);
-                workout.setRestSeconds(90);
-                workout.setDuration(0); // Set default workout duration to 0 seconds
-                
-                workoutRepository.save(workout);
+
+                // PR flag comes from the best lift index
+                workoutLogService.logSet(UserSnapshot.of(user), exercise, weight, reps, 90, date);
             }
         }
         
         return "Test data initialized successfully!";
     }
+
     // Get user's workout history
     @GetMapping("/history")
-    public List<Workout> getUserHistory(@RequestParam String username, @RequestParam(required = false) Long exerciseId) {
+    public List<WorkoutView> getUserHistory(@RequestParam String username, @RequestParam(required = false) Long exerciseId) {
+        Callers.requireSelf(username);
         if (exerciseId != null) {
-            Exercise exercise = exerciseRepository.findById(exerciseId).orElseThrow();
-            return workoutRepository.findByUsernameAndExerciseOrderByWeightDesc(username, exercise);
+            Exercise exercise = exerciseCatalog.findById(exerciseId).orElseThrow();
+            return workoutRepository.findHistoryViewsByExercise(username, exercise.getId());
         } else {
             // Get all user's workouts by timestamp desc
-            return workoutRepository.findByUsernameOrderByTimestampDesc(username);
+            return workoutRepository.findHistoryViews(username);
+        }
+    }
+
+    // Get one page of user's workout history (keyset pagination, newest first).
+    // Pass nextCursor from the previous page as cursor; from/to are inclusive dates.
+    @GetMapping("/history/page")
+    public ResponseEntity<?> getUserHistoryPage(@RequestParam String username,
+                                                @RequestParam(required = false) Long exerciseId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Callers.requireSelf(username);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+
+        HistoryCursor position;
+        try {
+            position = cursor != null && !cursor.isBlank()
+                    ? HistoryCursor.decode(cursor)
+                    : new HistoryCursor(to != null ? to.plusDays(1).atStartOfDay() : HISTORY_END, Long.MIN_VALUE); // exclusive upper bound
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        LocalDateTime lowerBound = from != null ? from.atStartOfDay() : HISTORY_START;
+
+        // Fetch one extra row to know whether another page follows
+        Limit limit = Limit.of(pageSize + 1);
+        List<WorkoutView> rows = exerciseId != null
+                ? workoutRepository.findHistoryPageByExercise(username, exerciseId, lowerBound, position.timestamp(), position.id(), limit)
+                : workoutRepository.findHistoryPage(username, lowerBound, position.timestamp(), position.id(), limit);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            WorkoutView last = rows.get(pageSize - 1);
+            nextCursor = new HistoryCursor(last.timestamp(), last.id()).encode();
+        }
+        return ResponseEntity.ok(new WorkoutHistoryPage(rows, nextCursor));
+    }
+
+    // Daily training totals from..to (inclusive) for charts, all exercises or one; one entry per day, zero-filled
+    @GetMapping("/rollups/daily")
+    public ResponseEntity<?> getDailyRollup(@RequestParam String username,
+                                            @RequestParam(required = false) Long exerciseId,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Callers.requireSelf(username);
+        try {
+            TrainingSeries series = trainingRollupService.dailySeries(username, exerciseId, from, to);
+            return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Weekly training totals for every ISO week touching from..to; one entry per week, zero-filled
+    @GetMapping("/rollups/weekly")
+    public ResponseEntity<?> getWeeklyRollup(@RequestParam String username,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Callers.requireSelf(username);
+        try {
+            TrainingSeries series = trainingRollupService.weeklySeries(username, from, to);
+            return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // e1RM progression of one exercise (404 if none of its sets counted yet), or of every exercise the user logged
+    @GetMapping("/progression")
+    public ResponseEntity<?> getProgression(@RequestParam String username, @RequestParam(required = false) Long exerciseId) {
+        Callers.requireSelf(username);
+        LocalDate today = LocalDate.now();
+        if (exerciseId == null) {
+            return ResponseEntity.ok(progressionService.viewAll(username, today));
+        }
+        ProgressionView view = progressionService.view(username, exerciseId, today);
+        return view != null ? ResponseEntity.ok(view) : ResponseEntity.notFound().build();
+    }
+
+    // Export user's full training log (workouts, then sessions) as NDJSON, optionally gzipped.
+    // Rows are streamed straight to the response, so memory use stays constant.
+    @GetMapping("/export")
+    public void exportTrainingLog(@RequestParam String username,
+                                  @RequestParam(required = false, defaultValue = "false") boolean gzip,
+                                  HttpServletResponse response) throws IOException {
+        Callers.requireSelf(username);
+        if (Callers.resolve(userDirectory, username) == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "User not found");
+            return;
+        }
+
+        String filename = username + "-training-log.ndjson" + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+        if (gzip) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        try (OutputStream body = out) {
+            trainingLogExportService.export(username, body);
         }
     }
 
     // Get user's most used exercises
     @GetMapping("/most-used")
     public List<Exercise> getMostUsedExercises(@RequestParam String username, @RequestParam String category) {
-        List<Object[]> results = workoutRepository.findMostUsedExercisesByCategory(username, category);
-        return results.stream()
-                .map(result -> (Exercise) result[0])
-                .toList();
+        Callers.requireSelf(username);
+        return exercisePopularityService.mostUsed(username, category);
+    }
+
+    // Start a workout session: sets logged with the returned id are totalled on the server
+    @PostMapping("/session/start")
+    public ResponseEntity<?> startWorkoutSession(@RequestParam String username) {
+        Callers.requireSelf(username);
+        if (Callers.resolve(userDirectory, username) == null) {
+            return ResponseEntity.badRequest().body("User not found, please register first");
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        return ResponseEntity.ok(new SessionStart(sessionAccumulator.start(username, startedAt), startedAt));
     }
 
     // Save workout session (persist after completion)
     @PostMapping("/session")
     public ResponseEntity<String> saveWorkoutSession(@RequestBody WorkoutSessionRequest request) {
+        String username = request.getUsername();
+        if (username == null || username.isBlank()) {
+            return ResponseEntity.badRequest().body("Username cannot be empty");
+        }
+        Callers.requireSelf(username);
         try {
-            String username = request.getUsername();
-            if (username == null || username.isBlank()) {
-                return ResponseEntity.badRequest().body("Username cannot be empty");
-            }
-
-            User user = userRepository.findByUsername(username);
+            UserSnapshot user = Callers.resolve(userDirectory, username);
             if (user == null) {
                 return ResponseEntity.badRequest().body("User not found, please register first");
             }
 
+            SessionAccumulator.Totals totals = null;
+            if (request.getSessionId() != null) {
+                if (workoutWriteBehind != null) {
+                    workoutWriteBehind.drain(); // journaled sets of this session count too
+                }
+                // null if the session expired or the server restarted: fall back to the client's totals
+                totals = sessionAccumulator.totals(request.getSessionId(), username);
+            }
+
             WorkoutSession session = new WorkoutSession();
-            session.setUser(user);
+            session.setUser(userDirectory.getReference(user));
             session.setUsername(username);
             session.setDurationText(request.getDuration());
 
@@ -213,20 +474,35 @@ public class WorkoutController {
             } catch (Exception ignore) {}
             session.setDurationSeconds(durationSeconds);
 
-            session.setTotalSets(request.getTotalSets());
-            session.setTotalVolume(request.getTotalVolume());
-            session.setTotalReps(request.getTotalReps());
-            session.setPrCount(request.getPrCount());
+            if (totals != null) {
+                // Totals accumulated from the sets logged with this session id; the client's are ignored
+                session.setTotalSets(totals.sets());
+                session.setTotalVolume(totals.volume());
+                session.setTotalReps(totals.reps());
+                session.setPrCount(totals.prs());
+                session.setServerTotals(true);
+                session.setStartTime(totals.startedAt());
+                session.setEndTime(LocalDateTime.now());
+            } else {
+                session.setTotalSets(request.getTotalSets());
+                session.setTotalVolume(request.getTotalVolume());
+                session.setTotalReps(request.getTotalReps());
+                session.setPrCount(request.getPrCount());
 
-            if (request.getStartTime() > 0) {
-                session.setStartTime(java.time.LocalDateTime.ofEpochSecond(request.getStartTime() / 1000, 0, java.time.ZoneOffset.UTC));
-            }
-            if (request.getEndTime() > 0) {
-                session.setEndTime(java.time.LocalDateTime.ofEpochSecond(request.getEndTime() / 1000, 0, java.time.ZoneOffset.UTC));
+                if (request.getStartTime() > 0) {
+                    session.setStartTime(java.time.LocalDateTime.ofEpochSecond(request.getStartTime() / 1000, 0, java.time.ZoneOffset.UTC));
+                }
+                if (request.getEndTime() > 0) {
+                    session.setEndTime(java.time.LocalDateTime.ofEpochSecond(request.getEndTime() / 1000, 0, java.time.ZoneOffset.UTC));
+                }
             }
             session.setCreatedAt(java.time.LocalDateTime.now());
 
             workoutSessionRepository.save(session);
+            if (totals != null) {
+                sessionAccumulator.end(request.getSessionId());
+            }
+            activityMetrics.sessionSaved();
             return ResponseEntity.ok("Workout session saved successfully");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to save workout session: " + e.getMessage());
@@ -236,14 +512,20 @@ public class WorkoutController {
     // Get global popular exercises (by category)
     @GetMapping("/popular")
     public List<Exercise> getGlobalPopularExercises(@RequestParam String category) {
-        List<Object[]> results = workoutRepository.findGlobalPopularExercisesByCategory(category);
-        return results.stream().map(r -> (Exercise) r[0]).toList();
+        return exercisePopularityService.globalPopular(category);
+    }
+
+    // Exercises of a category trending over the recent days (decayed set counts with error bounds)
+    @GetMapping("/trending")
+    public List<TrendingExercise> getTrendingExercises(@RequestParam String category,
+                                                       @RequestParam(required = false, defaultValue = "10") int limit) {
+        return exercisePopularityService.trending(category, Math.max(1, Math.min(limit, 100)));
     }
 
     // Get popular exercises (by category, excluding current user)
     @GetMapping("/popular-exclude-self")
     public List<Exercise> getPopularExercisesExcludeSelf(@RequestParam String category, @RequestParam String username) {
-        List<Object[]> results = workoutRepository.findPopularExercisesByCategoryExcludingUser(category, username);
-        return results.stream().map(r -> (Exercise) r[0]).toList();
+        Callers.requireSelf(username);
+        return exercisePopularityService.popularExcludingUser(category, username);
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.fitnessapp.model;
+
+// All by myself
+// Caller identity carried by a verified access token; the principal of token-authenticated requests
+public record AuthenticatedUser(Long id, String username) {
+
+    // Snapshot with only id and username, enough for the writes that reference the user row
+    public UserSnapshot toSnapshot() {
+        return new UserSnapshot(id, username, null, null, null, null, null, null, null, null);
+    }
+}
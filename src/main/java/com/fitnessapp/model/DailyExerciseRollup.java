@@ -0,0 +1,72 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// All by myself
+// Entity class
+// Training rollup: one row per (user, exercise, day) with the day's set count, reps, volume and heaviest set.
+// Kept up to date as sets are logged (TrainingRollupService) and rebuildable from the workout table.
+@Entity
+@Table(name = "daily_exercise_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_exercise_rollup", columnNames = {"username", "exercise_id", "training_day"}),
+       indexes = @Index(name = "idx_daily_exercise_rollup_user_day", columnList = "username, training_day"))
+public class DailyExerciseRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_exercise_rollup_seq")
+    @SequenceGenerator(name = "daily_exercise_rollup_seq", sequenceName = "daily_exercise_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "exercise_id", nullable = false)
+    private Long exerciseId;
+
+    @Column(name = "training_day", nullable = false)
+    private LocalDate trainingDay;
+
+    private long setCount;
+    private long totalReps;
+    private double totalVolume; // sum of weight x reps (kg)
+    private double maxWeight;   // heaviest set of the day (kg)
+
+    // No-args constructor (required by JPA)
+    public DailyExerciseRollup() {
+    }
+
+    public DailyExerciseRollup(String username, Long exerciseId, LocalDate trainingDay, RollupTotals totals) {
+        this.username = username;
+        this.exerciseId = exerciseId;
+        this.trainingDay = trainingDay;
+        this.setCount = totals.sets();
+        this.totalReps = totals.reps();
+        this.totalVolume = totals.volume();
+        this.maxWeight = totals.maxWeight();
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public Long getExerciseId() { return exerciseId; }
+    public void setExerciseId(Long exerciseId) { this.exerciseId = exerciseId; }
+
+    public LocalDate getTrainingDay() { return trainingDay; }
+    public void setTrainingDay(LocalDate trainingDay) { this.trainingDay = trainingDay; }
+
+    public long getSetCount() { return setCount; }
+    public void setSetCount(long setCount) { this.setCount = setCount; }
+
+    public long getTotalReps() { return totalReps; }
+    public void setTotalReps(long totalReps) { this.totalReps = totalReps; }
+
+    public double getTotalVolume() { return totalVolume; }
+    public void setTotalVolume(double totalVolume) { this.totalVolume = totalVolume; }
+
+    public double getMaxWeight() { return maxWeight; }
+    public void setMaxWeight(double maxWeight) { this.maxWeight = maxWeight; }
+}
@@ -1,13 +1,18 @@
 package com.fitnessapp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fitnessapp.service.ExerciseCatalogListener;
 import jakarta.persistence.*;
 // All by myself
 // Entity class
 // Represents an exercise
 @Entity
+@EntityListeners(ExerciseCatalogListener.class) // keeps the in-memory catalog snapshot fresh
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // allow serializing lazy references
 public class Exercise {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exercise_seq")
+    @SequenceGenerator(name = "exercise_seq", sequenceName = "exercise_seq", allocationSize = 50)
     private Long id;
 
     private String name; // exercise name
@@ -0,0 +1,81 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// All by myself
+// Entity class
+// Progression state: one row per (user, exercise) with the best estimated one-rep max so far and a
+// compact snapshot of the most recent session tops, from which the 4-week average and the trend
+// slope are computed (see ProgressionService). Updated as sets are logged and rebuildable.
+@Entity
+@Table(name = "exercise_progression",
+       uniqueConstraints = @UniqueConstraint(name = "uk_exercise_progression_user_exercise", columnNames = {"username", "exercise_id"}))
+public class ExerciseProgression {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exercise_progression_seq")
+    @SequenceGenerator(name = "exercise_progression_seq", sequenceName = "exercise_progression_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "exercise_id", nullable = false)
+    private Long exerciseId;
+
+    @Column(nullable = false, length = 16)
+    private String formula; // e1RM formula the values below were computed with
+
+    @Column(name = "best_e1rm")
+    private double bestE1rm;     // best estimated one-rep max (kg)
+
+    @Column(name = "best_e1rm_on")
+    private LocalDate bestE1rmOn;
+
+    private long setsCounted;    // sets that went into the estimate
+
+    @Column(nullable = false, length = 1024)
+    private String state;        // recent session tops, "epochDay:e1rm;..." oldest first
+
+    private LocalDateTime updatedAt;
+
+    // No-args constructor (required by JPA)
+    public ExerciseProgression() {
+    }
+
+    public ExerciseProgression(String username, Long exerciseId, String formula) {
+        this.username = username;
+        this.exerciseId = exerciseId;
+        this.formula = formula;
+        this.state = "";
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public Long getExerciseId() { return exerciseId; }
+    public void setExerciseId(Long exerciseId) { this.exerciseId = exerciseId; }
+
+    public String getFormula() { return formula; }
+    public void setFormula(String formula) { this.formula = formula; }
+
+    public double getBestE1rm() { return bestE1rm; }
+    public void setBestE1rm(double bestE1rm) { this.bestE1rm = bestE1rm; }
+
+    public LocalDate getBestE1rmOn() { return bestE1rmOn; }
+    public void setBestE1rmOn(LocalDate bestE1rmOn) { this.bestE1rmOn = bestE1rmOn; }
+
+    public long getSetsCounted() { return setsCounted; }
+    public void setSetsCounted(long setsCounted) { this.setsCounted = setsCounted; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,48 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+
+// All by myself
+// Entity class
+// Materialized global popularity counter: how many sets were logged for an exercise, across all users
+@Entity
+@Table(name = "exercise_usage_count",
+       uniqueConstraints = @UniqueConstraint(name = "uk_exercise_usage_count_exercise", columnNames = "exercise_id"),
+       indexes = @Index(name = "idx_exercise_usage_count_category", columnList = "category, use_count"))
+public class ExerciseUsageCount {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exercise_usage_count_seq")
+    @SequenceGenerator(name = "exercise_usage_count_seq", sequenceName = "exercise_usage_count_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "exercise_id", nullable = false)
+    private Long exerciseId;
+
+    private String category; // copied from the exercise so the picker can read one category directly
+
+    @Column(name = "use_count")
+    private long useCount;
+
+    // No-args constructor (required by JPA)
+    public ExerciseUsageCount() {
+    }
+
+    public ExerciseUsageCount(Long exerciseId, String category, long useCount) {
+        this.exerciseId = exerciseId;
+        this.category = category;
+        this.useCount = useCount;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getExerciseId() { return exerciseId; }
+    public void setExerciseId(Long exerciseId) { this.exerciseId = exerciseId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public long getUseCount() { return useCount; }
+    public void setUseCount(long useCount) { this.useCount = useCount; }
+}
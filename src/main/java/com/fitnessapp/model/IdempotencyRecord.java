@@ -0,0 +1,78 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// All by myself
+// Entity class
+// Stored response of a write sent with an Idempotency-Key header, replayed when the client retries it.
+// Rows are purged once expiresAt has passed.
+@Entity
+@Table(name = "idempotency_record",
+       uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_record_key", columnNames = {"idempotency_key"}),
+       indexes = @Index(name = "idx_idempotency_record_expires", columnList = "expires_at"))
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_record_seq")
+    @SequenceGenerator(name = "idempotency_record_seq", sequenceName = "idempotency_record_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, length = 512)
+    private String idempotencyKey; // request path + digest of caller and client key
+
+    @Column(name = "request_hash", length = 64)
+    private String requestHash; // SHA-256 of method, parameters and body; null on rows from before V8
+
+    @Column(nullable = false)
+    private int status;
+
+    private String contentType;
+
+    @Lob
+    private String body;
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // No-args constructor (required by JPA)
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String idempotencyKey, String requestHash, int status, String contentType, String body,
+                             LocalDateTime expiresAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,19 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// One set accepted in write-behind mode, as stored in the workout journal.
+// sequence is assigned on append and increases by one per set across restarts;
+// sessionId is the open workout session the set counts towards, or null.
+public record JournaledSet(
+    long sequence,
+    String username,
+    long exerciseId,
+    double weight,
+    int reps,
+    int restSeconds,
+    LocalDateTime loggedAt,
+    String sessionId
+) {
+}
@@ -0,0 +1,53 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// All by myself
+// Entity class
+// Best lift index: one row per (user, exercise) holding the heaviest weight logged so far
+@Entity
+@Table(name = "personal_record",
+       uniqueConstraints = @UniqueConstraint(name = "uk_personal_record_user_exercise", columnNames = {"username", "exercise_id"}))
+public class PersonalRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "personal_record_seq")
+    @SequenceGenerator(name = "personal_record_seq", sequenceName = "personal_record_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "exercise_id", nullable = false)
+    private Long exerciseId;
+
+    private double bestWeight; // heaviest weight logged (kg)
+    private LocalDateTime updatedAt;
+
+    // No-args constructor (required by JPA)
+    public PersonalRecord() {
+    }
+
+    public PersonalRecord(String username, Long exerciseId, double bestWeight) {
+        this.username = username;
+        this.exerciseId = exerciseId;
+        this.bestWeight = bestWeight;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public Long getExerciseId() { return exerciseId; }
+    public void setExerciseId(Long exerciseId) { this.exerciseId = exerciseId; }
+
+    public double getBestWeight() { return bestWeight; }
+    public void setBestWeight(double bestWeight) { this.bestWeight = bestWeight; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,9 @@
+package com.fitnessapp.model;
+
+import java.util.List;
+
+// All by myself
+// Result of recomputing the popularity counters from the workout table.
+// Each drift entry reads "<counter key>: stored=<n>, actual=<m>".
+public record PopularityReconciliation(int globalCounters, int userCounters, List<String> drift) {
+}
@@ -0,0 +1,22 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// All by myself
+// Response row for GET /api/workouts/progression: e1RM trend of one exercise.
+// rollingAverage is the mean session top over the last 4 weeks (null if none), slopePerSession the
+// least-squares change of the session top per session over the last few sessions (null below two).
+public record ProgressionView(
+    Long exerciseId,
+    String formula,
+    double bestE1rm,
+    LocalDate bestE1rmOn,
+    long setsCounted,
+    Double rollingAverage,
+    int rollingSessions,
+    Double slopePerSession,
+    List<LocalDate> sessionDates, // recent sessions, oldest first
+    List<Double> sessionE1rm      // best e1RM of each of those sessions
+) {
+}
@@ -0,0 +1,18 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDate;
+
+// All by myself
+// Totals of one rollup period: a day or the Monday of an ISO week. Also the row type of the
+// rollup range queries (JPQL constructor expressions, see the rollup repositories).
+public record RollupTotals(LocalDate period, long sets, long reps, double volume, double maxWeight) {
+
+    public static RollupTotals empty(LocalDate period) {
+        return new RollupTotals(period, 0, 0, 0, 0);
+    }
+
+    // These totals plus one set
+    public RollupTotals add(double weight, int reps) {
+        return new RollupTotals(period, sets + 1, this.reps + reps, volume + weight * reps, Math.max(maxWeight, weight));
+    }
+}
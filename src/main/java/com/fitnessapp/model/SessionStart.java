@@ -0,0 +1,8 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// Response of POST /session/start: pass sessionId with every logged set and with the final /session save
+public record SessionStart(String sessionId, LocalDateTime startedAt) {
+}
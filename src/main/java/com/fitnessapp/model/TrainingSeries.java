@@ -0,0 +1,19 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// All by myself
+// Chart-ready rollup series: one entry per day (or ISO week) of the requested range, oldest first,
+// zero-filled where nothing was logged. The lists line up with labels index by index.
+public record TrainingSeries(
+    String granularity, // "day" or "week"
+    LocalDate from,
+    LocalDate to,
+    List<String> labels, // 2024-03-01, or 2024-W09 for weeks
+    List<Long> sets,
+    List<Long> reps,
+    List<Double> volume,
+    List<Double> maxWeight
+) {
+}
@@ -0,0 +1,7 @@
+package com.fitnessapp.model;
+
+// All by myself
+// Response row for GET /api/workouts/trending: an exercise with its decayed set count over the recent
+// time buckets. The exact decayed count is within score +/- maxError (see ExerciseLeaderboard).
+public record TrendingExercise(Long exerciseId, String name, String category, double score, double maxError) {
+}
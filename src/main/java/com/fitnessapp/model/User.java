@@ -1,5 +1,7 @@
 package com.fitnessapp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fitnessapp.service.UserDirectoryListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -8,10 +10,13 @@ import java.time.LocalDateTime;
 // Represents user information
 @Entity
 @Table(name = "user")
+@EntityListeners(UserDirectoryListener.class) // keeps the cached user directory fresh
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // allow serializing lazy references
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -0,0 +1,55 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+
+// All by myself
+// Entity class
+// Materialized per-user popularity counter: how many sets a user logged for an exercise
+@Entity
+@Table(name = "user_exercise_usage_count",
+       uniqueConstraints = @UniqueConstraint(name = "uk_user_exercise_usage_count", columnNames = {"username", "exercise_id"}),
+       indexes = @Index(name = "idx_user_exercise_usage_count_category", columnList = "username, category, use_count"))
+public class UserExerciseUsageCount {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_exercise_usage_count_seq")
+    @SequenceGenerator(name = "user_exercise_usage_count_seq", sequenceName = "user_exercise_usage_count_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "exercise_id", nullable = false)
+    private Long exerciseId;
+
+    private String category;
+
+    @Column(name = "use_count")
+    private long useCount;
+
+    // No-args constructor (required by JPA)
+    public UserExerciseUsageCount() {
+    }
+
+    public UserExerciseUsageCount(String username, Long exerciseId, String category, long useCount) {
+        this.username = username;
+        this.exerciseId = exerciseId;
+        this.category = category;
+        this.useCount = useCount;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public Long getExerciseId() { return exerciseId; }
+    public void setExerciseId(Long exerciseId) { this.exerciseId = exerciseId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public long getUseCount() { return useCount; }
+    public void setUseCount(long useCount) { this.useCount = useCount; }
+}
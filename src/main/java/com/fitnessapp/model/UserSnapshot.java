@@ -0,0 +1,41 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// Immutable, password-less copy of a user's profile as held by the user directory cache
+public record UserSnapshot(
+    Long id,
+    String username,
+    String nickname,
+    String email,
+    Double height,
+    Double weight,
+    Integer age,
+    String gender,
+    LocalDateTime createdAt,
+    LocalDateTime lastLoginAt
+) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getNickname(), user.getEmail(),
+                user.getHeight(), user.getWeight(), user.getAge(), user.getGender(),
+                user.getCreatedAt(), user.getLastLoginAt());
+    }
+
+    // Transient (never persisted) User carrying the profile fields, for the BMI/BMR calculations
+    public User toProfile() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setNickname(nickname);
+        user.setEmail(email);
+        user.setHeight(height);
+        user.setWeight(weight);
+        user.setAge(age);
+        user.setGender(gender);
+        user.setCreatedAt(createdAt);
+        user.setLastLoginAt(lastLoginAt);
+        return user;
+    }
+}
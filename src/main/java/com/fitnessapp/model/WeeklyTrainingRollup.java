@@ -0,0 +1,63 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// All by myself
+// Entity class
+// Training rollup: one row per (user, ISO week) over all exercises. weekStart is the Monday of the week.
+@Entity
+@Table(name = "weekly_training_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_weekly_training_rollup", columnNames = {"username", "week_start"}))
+public class WeeklyTrainingRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weekly_training_rollup_seq")
+    @SequenceGenerator(name = "weekly_training_rollup_seq", sequenceName = "weekly_training_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    private long setCount;
+    private long totalReps;
+    private double totalVolume; // sum of weight x reps (kg)
+    private double maxWeight;   // heaviest set of the week (kg)
+
+    // No-args constructor (required by JPA)
+    public WeeklyTrainingRollup() {
+    }
+
+    public WeeklyTrainingRollup(String username, LocalDate weekStart, RollupTotals totals) {
+        this.username = username;
+        this.weekStart = weekStart;
+        this.setCount = totals.sets();
+        this.totalReps = totals.reps();
+        this.totalVolume = totals.volume();
+        this.maxWeight = totals.maxWeight();
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public LocalDate getWeekStart() { return weekStart; }
+    public void setWeekStart(LocalDate weekStart) { this.weekStart = weekStart; }
+
+    public long getSetCount() { return setCount; }
+    public void setSetCount(long setCount) { this.setCount = setCount; }
+
+    public long getTotalReps() { return totalReps; }
+    public void setTotalReps(long totalReps) { this.totalReps = totalReps; }
+
+    public double getTotalVolume() { return totalVolume; }
+    public void setTotalVolume(double totalVolume) { this.totalVolume = totalVolume; }
+
+    public double getMaxWeight() { return maxWeight; }
+    public void setMaxWeight(double maxWeight) { this.maxWeight = maxWeight; }
+}
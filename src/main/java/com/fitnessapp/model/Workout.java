@@ -1,5 +1,6 @@
 package com.fitnessapp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -7,15 +8,31 @@ import java.time.LocalDateTime;
 // Entity class
 // Represents a workout record
 @Entity
+// Fetch plan for list endpoints: the exercise is serialized with every row, the user never is
+@NamedEntityGraph(name = Workout.WITH_EXERCISE, attributeNodes = @NamedAttributeNode("exercise"))
+@Table(indexes = {
+    // Keyset pagination of history: newest first, ties broken by id
+    @Index(name = "idx_workout_username_ts_id", columnList = "username, timestamp, id"),
+    @Index(name = "idx_workout_username_exercise_ts_id", columnList = "username, exercise_id, timestamp, id"),
+    // Heaviest-first lookups, by username and by user association (mirrors db/migration V2)
+    @Index(name = "idx_workout_username_exercise_weight", columnList = "username, exercise_id, weight"),
+    @Index(name = "idx_workout_user_exercise_weight", columnList = "user_id, exercise_id, weight"),
+    @Index(name = "idx_workout_user_ts", columnList = "user_id, timestamp")
+})
 public class Workout {
+    public static final String WITH_EXERCISE = "Workout.withExercise";
+
+    // Pooled sequence ids (a table-backed sequence on MySQL) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_seq")
+    @SequenceGenerator(name = "workout_seq", sequenceName = "workout_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Exercise exercise;
 
-    @ManyToOne
+    @JsonIgnore // never part of the payload; username identifies the athlete
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user; // related user
 
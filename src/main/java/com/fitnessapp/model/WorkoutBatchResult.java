@@ -0,0 +1,8 @@
+package com.fitnessapp.model;
+
+import java.util.List;
+
+// All by myself
+// Batch log response DTO: ids of the saved workouts in request order
+public record WorkoutBatchResult(int saved, int personalRecords, List<Long> ids) {
+}
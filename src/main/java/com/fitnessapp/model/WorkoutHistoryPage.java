@@ -0,0 +1,8 @@
+package com.fitnessapp.model;
+
+import java.util.List;
+
+// All by myself
+// One page of workout history; nextCursor is null on the last page
+public record WorkoutHistoryPage(List<WorkoutView> items, String nextCursor) {
+}
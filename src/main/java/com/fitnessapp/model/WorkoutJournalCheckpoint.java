@@ -0,0 +1,43 @@
+package com.fitnessapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// All by myself
+// Entity class
+// Single row holding the highest journal sequence written to the workout table. It is advanced in the
+// same transaction as the rows, so journal replay after a crash never writes a set twice.
+@Entity
+@Table(name = "workout_journal_checkpoint")
+public class WorkoutJournalCheckpoint {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "applied_through", nullable = false)
+    private long appliedThrough;
+
+    private LocalDateTime updatedAt;
+
+    // No-args constructor (required by JPA)
+    public WorkoutJournalCheckpoint() {
+    }
+
+    public WorkoutJournalCheckpoint(Long id, long appliedThrough) {
+        this.id = id;
+        this.appliedThrough = appliedThrough;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public long getAppliedThrough() { return appliedThrough; }
+    public void setAppliedThrough(long appliedThrough) { this.appliedThrough = appliedThrough; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
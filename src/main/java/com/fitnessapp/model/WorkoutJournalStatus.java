@@ -0,0 +1,8 @@
+package com.fitnessapp.model;
+
+// All by myself
+// Write-behind progress: sets up to appliedThrough are in the workout table (or, counted in deadLettered,
+// in the dead-letter file), the rest are queued
+public record WorkoutJournalStatus(long appendedThrough, long appliedThrough, int pending, int journalBytesUsed,
+                                   long deadLettered) {
+}
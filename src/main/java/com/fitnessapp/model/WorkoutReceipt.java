@@ -0,0 +1,24 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// Response of POST /log in write-behind mode: the set is in the journal but not in the workout table yet.
+// Same fields as WorkoutView minus the ones only known once the row is written (id, personalRecord);
+// compare sequence with WorkoutJournalStatus.appliedThrough to know when it is.
+public record WorkoutReceipt(
+    long sequence,
+    String username,
+    WorkoutView.ExerciseView exercise,
+    double weight,
+    int reps,
+    LocalDateTime timestamp,
+    int restSeconds
+) {
+
+    public static WorkoutReceipt of(JournaledSet set, Exercise exercise) {
+        return new WorkoutReceipt(set.sequence(), set.username(),
+                new WorkoutView.ExerciseView(exercise.getId(), exercise.getName(), exercise.getCategory()),
+                set.weight(), set.reps(), set.loggedAt(), set.restSeconds());
+    }
+}
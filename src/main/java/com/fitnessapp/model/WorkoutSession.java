@@ -1,17 +1,21 @@
 package com.fitnessapp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 // All by myself
 // Workout session entity: stores summary of a complete workout
 @Entity
+@Table(indexes = @Index(name = "idx_workout_session_username_created", columnList = "username, created_at, id"))
 public class WorkoutSession {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_session_seq")
+    @SequenceGenerator(name = "workout_session_seq", sequenceName = "workout_session_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -29,6 +33,11 @@ public class WorkoutSession {
     private Integer totalReps;
     private Integer prCount;
 
+    // True when the totals were accumulated by the server from the sets logged in this session,
+    // false for client-reported totals
+    @Column(nullable = false)
+    private boolean serverTotals;
+
     private LocalDateTime startTime;
     private LocalDateTime endTime;
 
@@ -67,6 +76,9 @@ public class WorkoutSession {
     public LocalDateTime getEndTime() { return endTime; }
     public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
 
+    public boolean isServerTotals() { return serverTotals; }
+    public void setServerTotals(boolean serverTotals) { this.serverTotals = serverTotals; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
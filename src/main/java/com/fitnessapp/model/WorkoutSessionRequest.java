@@ -11,6 +11,7 @@ public class WorkoutSessionRequest {
     private int prCount;
     private long startTime;
     private long endTime;
+    private String sessionId; // from /session/start; when set, the server's totals replace the ones above
 
     // Constructors
     public WorkoutSessionRequest() {}
@@ -92,4 +93,12 @@ public class WorkoutSessionRequest {
     public void setEndTime(long endTime) {
         this.endTime = endTime;
     }
-} 
\ No newline at end of file
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+}
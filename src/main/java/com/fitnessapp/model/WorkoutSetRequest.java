@@ -0,0 +1,63 @@
+package com.fitnessapp.model;
+
+// All by myself
+// Workout set request DTO (one entry of a batch log request)
+public class WorkoutSetRequest {
+    private Long exerciseId;
+    private double weight;
+    private int reps;
+    private int restSeconds;
+    private long timestamp; // epoch millis when the set was done; 0 means "now"
+
+    // Constructors
+    public WorkoutSetRequest() {}
+
+    public WorkoutSetRequest(Long exerciseId, double weight, int reps, int restSeconds, long timestamp) {
+        this.exerciseId = exerciseId;
+        this.weight = weight;
+        this.reps = reps;
+        this.restSeconds = restSeconds;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public Long getExerciseId() {
+        return exerciseId;
+    }
+
+    public void setExerciseId(Long exerciseId) {
+        this.exerciseId = exerciseId;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+
+    public void setReps(int reps) {
+        this.reps = reps;
+    }
+
+    public int getRestSeconds() {
+        return restSeconds;
+    }
+
+    public void setRestSeconds(int restSeconds) {
+        this.restSeconds = restSeconds;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fitnessapp.model;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// Response row for the workout endpoints: only the fields the pages render, no User and no entity
+// getters. Built directly by JPQL constructor expressions (see WorkoutRepository), so no entity is
+// loaded or managed for a history row.
+public record WorkoutView(
+    Long id,
+    String username,
+    ExerciseView exercise,
+    double weight,
+    int reps,
+    LocalDateTime timestamp,
+    boolean personalRecord,
+    int restSeconds,
+    Integer duration
+) {
+
+    // Exercise as nested in a workout row
+    public record ExerciseView(Long id, String name, String category) {
+    }
+
+    // Flat form for "SELECT new ..." (JPQL cannot build the nested record itself)
+    public WorkoutView(Long id, String username, Long exerciseId, String exerciseName, String exerciseCategory,
+                       double weight, int reps, LocalDateTime timestamp, boolean personalRecord,
+                       int restSeconds, Integer duration) {
+        this(id, username, new ExerciseView(exerciseId, exerciseName, exerciseCategory),
+                weight, reps, timestamp, personalRecord, restSeconds, duration);
+    }
+
+    public static WorkoutView of(Workout workout, Exercise exercise) {
+        return new WorkoutView(workout.getId(), workout.getUsername(),
+                new ExerciseView(exercise.getId(), exercise.getName(), exercise.getCategory()),
+                workout.getWeight(), workout.getReps(), workout.getTimestamp(), workout.isPersonalRecord(),
+                workout.getRestSeconds(), workout.getDuration());
+    }
+}
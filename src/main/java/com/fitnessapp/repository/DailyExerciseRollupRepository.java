@@ -0,0 +1,43 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.DailyExerciseRollup;
+import com.fitnessapp.model.RollupTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// All by myself
+// Repository interface
+// For the per-day, per-exercise training rollup
+public interface DailyExerciseRollupRepository extends JpaRepository<DailyExerciseRollup, Long> {
+
+    // Add sets to a day; returns 0 when the row does not exist yet
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DailyExerciseRollup r SET r.setCount = r.setCount + :sets, r.totalReps = r.totalReps + :reps, " +
+           "r.totalVolume = r.totalVolume + :volume, " +
+           "r.maxWeight = CASE WHEN r.maxWeight < :maxWeight THEN :maxWeight ELSE r.maxWeight END " +
+           "WHERE r.username = :username AND r.exerciseId = :exerciseId AND r.trainingDay = :day")
+    int add(@Param("username") String username, @Param("exerciseId") Long exerciseId, @Param("day") LocalDate day,
+            @Param("sets") long sets, @Param("reps") long reps, @Param("volume") double volume,
+            @Param("maxWeight") double maxWeight);
+
+    // All exercises of a user summed per day (idx_daily_exercise_rollup_user_day)
+    @Query("SELECT new com.fitnessapp.model.RollupTotals(r.trainingDay, SUM(r.setCount), SUM(r.totalReps), " +
+           "SUM(r.totalVolume), MAX(r.maxWeight)) FROM DailyExerciseRollup r " +
+           "WHERE r.username = :username AND r.trainingDay BETWEEN :from AND :to " +
+           "GROUP BY r.trainingDay ORDER BY r.trainingDay")
+    List<RollupTotals> findDailyTotals(@Param("username") String username,
+                                       @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // One exercise of a user per day (uk_daily_exercise_rollup)
+    @Query("SELECT new com.fitnessapp.model.RollupTotals(r.trainingDay, r.setCount, r.totalReps, r.totalVolume, r.maxWeight) " +
+           "FROM DailyExerciseRollup r " +
+           "WHERE r.username = :username AND r.exerciseId = :exerciseId AND r.trainingDay BETWEEN :from AND :to " +
+           "ORDER BY r.trainingDay")
+    List<RollupTotals> findDailyByExercise(@Param("username") String username, @Param("exerciseId") Long exerciseId,
+                                           @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
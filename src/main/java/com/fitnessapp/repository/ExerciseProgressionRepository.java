@@ -0,0 +1,29 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.ExerciseProgression;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+// All by myself
+// Repository interface
+// For the per-(user, exercise) progression state
+public interface ExerciseProgressionRepository extends JpaRepository<ExerciseProgression, Long> {
+    ExerciseProgression findByUsernameAndExerciseId(String username, Long exerciseId);
+
+    List<ExerciseProgression> findByUsernameOrderByExerciseId(String username);
+
+    // Whether any row was computed with another formula (checked once at startup)
+    boolean existsByFormulaNot(String formula);
+
+    // Rows about to be updated by logged sets, locked so concurrent sets of the same user do not lose updates
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ExerciseProgression p WHERE p.username = :username AND p.exerciseId IN :exerciseIds")
+    List<ExerciseProgression> lockForUpdate(@Param("username") String username,
+                                            @Param("exerciseIds") Collection<Long> exerciseIds);
+}
@@ -0,0 +1,33 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.ExerciseUsageCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+// All by myself
+// Repository interface
+// For accessing global exercise popularity counters
+public interface ExerciseUsageCountRepository extends JpaRepository<ExerciseUsageCount, Long> {
+    List<ExerciseUsageCount> findByCategoryOrderByUseCountDescExerciseIdAsc(String category);
+
+    // Atomic upsert: creates the counter with delta or adds delta to it, in one statement
+    // (ON DUPLICATE KEY UPDATE on MySQL, MERGE on H2), so concurrent first uses cannot collide
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO ExerciseUsageCount (exerciseId, category, useCount) VALUES (:exerciseId, :category, :delta) " +
+           "ON CONFLICT (exerciseId) DO UPDATE SET useCount = useCount + excluded.useCount")
+    int add(@Param("exerciseId") Long exerciseId, @Param("category") String category, @Param("delta") long delta);
+
+    // Relative correction of an existing counter; returns 0 when the counter row does not exist
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ExerciseUsageCount c SET c.useCount = c.useCount + :delta WHERE c.exerciseId = :exerciseId")
+    int increment(@Param("exerciseId") Long exerciseId, @Param("delta") long delta);
+
+    // Drop counters corrected down to nothing
+    @Modifying
+    @Query("DELETE FROM ExerciseUsageCount c WHERE c.useCount <= 0")
+    int deleteUnused();
+}
@@ -0,0 +1,22 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// Repository interface
+// For the persistent idempotency store
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    IdempotencyRecord findByIdempotencyKey(String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.PersonalRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// Repository interface
+// For accessing the best lift index
+public interface PersonalRecordRepository extends JpaRepository<PersonalRecord, Long> {
+    PersonalRecord findByUsernameAndExerciseId(String username, Long exerciseId);
+
+    // Raise the stored best only if the new weight beats it; returns 1 when the lift is a new PR
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PersonalRecord p SET p.bestWeight = :weight, p.updatedAt = :now " +
+           "WHERE p.username = :username AND p.exerciseId = :exerciseId AND p.bestWeight < :weight")
+    int raiseBestWeight(@Param("username") String username, @Param("exerciseId") Long exerciseId,
+                        @Param("weight") double weight, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,36 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.UserExerciseUsageCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+// All by myself
+// Repository interface
+// For accessing per-user exercise popularity counters
+public interface UserExerciseUsageCountRepository extends JpaRepository<UserExerciseUsageCount, Long> {
+    List<UserExerciseUsageCount> findByUsernameAndCategoryOrderByUseCountDescExerciseIdAsc(String username, String category);
+
+    // Atomic upsert: creates the counter with delta or adds delta to it, in one statement
+    // (ON DUPLICATE KEY UPDATE on MySQL, MERGE on H2), so concurrent first uses cannot collide
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO UserExerciseUsageCount (username, exerciseId, category, useCount) " +
+           "VALUES (:username, :exerciseId, :category, :delta) " +
+           "ON CONFLICT (username, exerciseId) DO UPDATE SET useCount = useCount + excluded.useCount")
+    int add(@Param("username") String username, @Param("exerciseId") Long exerciseId, @Param("category") String category,
+            @Param("delta") long delta);
+
+    // Relative correction of an existing counter; returns 0 when the counter row does not exist
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserExerciseUsageCount c SET c.useCount = c.useCount + :delta " +
+           "WHERE c.username = :username AND c.exerciseId = :exerciseId")
+    int increment(@Param("username") String username, @Param("exerciseId") Long exerciseId, @Param("delta") long delta);
+
+    // Drop counters corrected down to nothing
+    @Modifying
+    @Query("DELETE FROM UserExerciseUsageCount c WHERE c.useCount <= 0")
+    int deleteUnused();
+}
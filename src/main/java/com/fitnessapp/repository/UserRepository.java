@@ -1,13 +1,31 @@
 package com.fitnessapp.repository;
 
 import com.fitnessapp.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 // All by myself
 // Repository interface
 // For accessing user data
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByUsername(String username);
+
+    // Row lock on a user until the transaction ends. Taken before writing the per-user derived rows
+    // (best lifts, counters, rollups, progression) so one user's concurrent logs cannot both create the same row.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id = :id")
+    Long lockForWrite(@Param("id") Long id);
+
+    // Row locks on every user, in username order like logJournaled takes them. Taken by the rebuilds of those
+    // derived tables so that no set is logged between their delete and their reinsert.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u ORDER BY u.username")
+    List<Long> lockAllForWrite();
 }
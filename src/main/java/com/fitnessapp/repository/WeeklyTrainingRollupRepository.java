@@ -0,0 +1,34 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.RollupTotals;
+import com.fitnessapp.model.WeeklyTrainingRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// All by myself
+// Repository interface
+// For the per-week training rollup
+public interface WeeklyTrainingRollupRepository extends JpaRepository<WeeklyTrainingRollup, Long> {
+
+    // Add sets to a week; returns 0 when the row does not exist yet
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WeeklyTrainingRollup r SET r.setCount = r.setCount + :sets, r.totalReps = r.totalReps + :reps, " +
+           "r.totalVolume = r.totalVolume + :volume, " +
+           "r.maxWeight = CASE WHEN r.maxWeight < :maxWeight THEN :maxWeight ELSE r.maxWeight END " +
+           "WHERE r.username = :username AND r.weekStart = :weekStart")
+    int add(@Param("username") String username, @Param("weekStart") LocalDate weekStart,
+            @Param("sets") long sets, @Param("reps") long reps, @Param("volume") double volume,
+            @Param("maxWeight") double maxWeight);
+
+    // Weeks of a user in a range (uk_weekly_training_rollup)
+    @Query("SELECT new com.fitnessapp.model.RollupTotals(r.weekStart, r.setCount, r.totalReps, r.totalVolume, r.maxWeight) " +
+           "FROM WeeklyTrainingRollup r " +
+           "WHERE r.username = :username AND r.weekStart BETWEEN :from AND :to ORDER BY r.weekStart")
+    List<RollupTotals> findWeeks(@Param("username") String username,
+                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
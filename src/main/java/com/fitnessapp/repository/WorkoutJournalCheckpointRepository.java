@@ -0,0 +1,21 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.WorkoutJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+// All by myself
+// Repository interface
+// For the write-behind journal checkpoint
+public interface WorkoutJournalCheckpointRepository extends JpaRepository<WorkoutJournalCheckpoint, Long> {
+
+    // Move the checkpoint forward (never back); runs inside the transaction that writes the sets
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WorkoutJournalCheckpoint c SET c.appliedThrough = :sequence, c.updatedAt = :now " +
+           "WHERE c.id = :id AND c.appliedThrough < :sequence")
+    int advance(@Param("id") Long id, @Param("sequence") long sequence, @Param("now") LocalDateTime now);
+}
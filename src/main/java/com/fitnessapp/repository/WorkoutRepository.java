@@ -1,20 +1,37 @@
 package com.fitnessapp.repository;
 
 import com.fitnessapp.model.Workout;
+import com.fitnessapp.model.WorkoutView;
 import com.fitnessapp.model.Exercise;
 import com.fitnessapp.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 // All by myself
 // Repository interface
 // For accessing workout data
+// Associations are LAZY. Endpoints serialize WorkoutView rows built by constructor expressions;
+// entity lists that are walked with their exercise load it through the Workout.WITH_EXERCISE graph.
 public interface WorkoutRepository extends JpaRepository<Workout, Long> {
+    // Constructor expression for WorkoutView; expects "Workout w JOIN w.exercise e"
+    String VIEW_COLUMNS = "new com.fitnessapp.model.WorkoutView(w.id, w.username, e.id, e.name, e.category, " +
+            "w.weight, w.reps, w.timestamp, w.personalRecord, w.restSeconds, w.duration)";
+
+    @EntityGraph(Workout.WITH_EXERCISE)
     List<Workout> findByUsernameAndExerciseOrderByWeightDesc(String username, Exercise exercise);
+
+    @EntityGraph(Workout.WITH_EXERCISE)
     List<Workout> findByUsernameOrderByTimestampDesc(String username);
     
     // Find most used exercises by category for a user
@@ -36,8 +53,90 @@ public interface WorkoutRepository extends JpaRepository<Workout, Long> {
     List<Object[]> findPopularExercisesByCategoryExcludingUser(@Param("category") String category, @Param("username") String username);
     
     // Find all workouts by user ordered by timestamp desc
+    @EntityGraph(Workout.WITH_EXERCISE)
     List<Workout> findByUserOrderByTimestampDesc(User user);
     
     // Find workouts by user and exercise ordered by weight desc
+    @EntityGraph(Workout.WITH_EXERCISE)
     List<Workout> findByUserAndExerciseOrderByWeightDesc(User user, Exercise exercise);
+
+    // Keyset page of a user's history, newest first: rows strictly before (beforeTimestamp, beforeId).
+    // The redundant "timestamp <= :beforeTimestamp" gives the (username, timestamp, id) index a plain range to seek on.
+    @Query("SELECT " + VIEW_COLUMNS + " FROM Workout w JOIN w.exercise e WHERE w.username = :username " +
+           "AND w.timestamp >= :from AND w.timestamp <= :beforeTimestamp " +
+           "AND (w.timestamp < :beforeTimestamp OR (w.timestamp = :beforeTimestamp AND w.id < :beforeId)) " +
+           "ORDER BY w.timestamp DESC, w.id DESC")
+    List<WorkoutView> findHistoryPage(@Param("username") String username,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                      @Param("beforeId") Long beforeId,
+                                      Limit limit);
+
+    // Same as findHistoryPage, restricted to one exercise
+    @Query("SELECT " + VIEW_COLUMNS + " FROM Workout w JOIN w.exercise e WHERE w.username = :username AND e.id = :exerciseId " +
+           "AND w.timestamp >= :from AND w.timestamp <= :beforeTimestamp " +
+           "AND (w.timestamp < :beforeTimestamp OR (w.timestamp = :beforeTimestamp AND w.id < :beforeId)) " +
+           "ORDER BY w.timestamp DESC, w.id DESC")
+    List<WorkoutView> findHistoryPageByExercise(@Param("username") String username,
+                                                @Param("exerciseId") Long exerciseId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                                @Param("beforeId") Long beforeId,
+                                                Limit limit);
+
+    // Full history as response rows, newest first (GET /history)
+    @Query("SELECT " + VIEW_COLUMNS + " FROM Workout w JOIN w.exercise e WHERE w.username = :username " +
+           "ORDER BY w.timestamp DESC")
+    List<WorkoutView> findHistoryViews(@Param("username") String username);
+
+    // History of one exercise as response rows, heaviest first (GET /history?exerciseId=)
+    @Query("SELECT " + VIEW_COLUMNS + " FROM Workout w JOIN w.exercise e WHERE w.username = :username AND e.id = :exerciseId " +
+           "ORDER BY w.weight DESC")
+    List<WorkoutView> findHistoryViewsByExercise(@Param("username") String username, @Param("exerciseId") Long exerciseId);
+
+    // Forward-only cursor over a user's whole log (oldest first) for streaming export.
+    // Must be consumed inside a transaction and closed; rows are fetched from the driver in chunks.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT w FROM Workout w JOIN FETCH w.exercise WHERE w.username = :username ORDER BY w.timestamp, w.id")
+    Stream<Workout> streamByUsername(@Param("username") String username);
+
+    // Exact set counts per exercise, used to reconcile the global popularity counters
+    @Query("SELECT w.exercise.id, w.exercise.category, COUNT(w) FROM Workout w " +
+           "GROUP BY w.exercise.id, w.exercise.category")
+    List<Object[]> countByExercise();
+
+    // Exact set counts per (username, exercise), used to reconcile the per-user popularity counters
+    @Query("SELECT w.username, w.exercise.id, w.exercise.category, COUNT(w) FROM Workout w " +
+           "GROUP BY w.username, w.exercise.id, w.exercise.category")
+    List<Object[]> countByUserAndExercise();
+
+    // Daily totals per (username, exercise id, day), grouped by user, used to rebuild the training rollups:
+    // username, exercise id, day, sets, reps, volume, max weight. Same cursor rules as streamByUsername.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT w.username, w.exercise.id, CAST(w.timestamp AS LocalDate), COUNT(w), SUM(w.reps), " +
+           "SUM(w.weight * w.reps), MAX(w.weight) FROM Workout w " +
+           "GROUP BY w.username, w.exercise.id, CAST(w.timestamp AS LocalDate) " +
+           "ORDER BY w.username")
+    Stream<Object[]> streamDailyTotals();
+
+    // Every set as (username, exercise id, timestamp, weight, reps), grouped by (user, exercise) in time order,
+    // used to rebuild the progression state. Same cursor rules as streamByUsername.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT w.username, w.exercise.id, w.timestamp, w.weight, w.reps FROM Workout w " +
+           "ORDER BY w.username, w.exercise.id, w.timestamp, w.id")
+    Stream<Object[]> streamSetsForProgression();
+
+    // Heaviest weight per (username, exercise id), used to rebuild the best lift index
+    @Query("SELECT w.username, w.exercise.id, MAX(w.weight) FROM Workout w " +
+           "GROUP BY w.username, w.exercise.id")
+    List<Object[]> findBestWeightsByUserAndExercise();
 }
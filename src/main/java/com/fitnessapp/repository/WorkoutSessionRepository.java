@@ -1,8 +1,22 @@
 package com.fitnessapp.repository;
 
 import com.fitnessapp.model.WorkoutSession;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
 
 public interface WorkoutSessionRepository extends JpaRepository<WorkoutSession, Long> {
-}
 
+    // Forward-only cursor over a user's sessions (oldest first) for streaming export
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM WorkoutSession s WHERE s.username = :username ORDER BY s.createdAt, s.id")
+    Stream<WorkoutSession> streamByUsername(@Param("username") String username);
+}
@@ -0,0 +1,119 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+// All by myself
+// Service class
+// Stateless access tokens issued at login: base64url("userId:expiresAt:username") + "." + base64url(HMAC-SHA256).
+// Verifying one is a MAC over ~30 bytes and a constant-time compare, with no database or cache access,
+// so a request with a token needs no user lookup to know who is calling. Tokens cannot be revoked before
+// they expire; changing fitnessapp.auth.token-secret invalidates all of them. Without a configured secret
+// a random one is generated at startup, so tokens stop working on restart and differ between instances.
+@Service
+public class AccessTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> macs; // Mac is not thread-safe; one initialized instance per thread
+
+    public AccessTokenService(@Value("${fitnessapp.auth.token-secret:}") String secret,
+                              @Value("${fitnessapp.auth.token-ttl-minutes:720}") long ttlMinutes) {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            secretBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(secretBytes);
+            log.warn("fitnessapp.auth.token-secret is not set: using a random secret, access tokens will not survive a restart");
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (secretBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("fitnessapp.auth.token-secret must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttl = Duration.ofMinutes(Math.max(1, ttlMinutes));
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        newMac(); // fail at startup, not on the first request, if HMAC-SHA256 is unavailable
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public String issue(Long userId, String username) {
+        return issue(userId, username, Instant.now());
+    }
+
+    String issue(Long userId, String username, Instant now) {
+        long expiresAt = now.plus(ttl).getEpochSecond();
+        byte[] payload = (userId + ":" + expiresAt + ":" + username).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    // Caller of a token, or null if it is malformed, forged or expired
+    public AuthenticatedUser verify(String token) {
+        return verify(token, Instant.now());
+    }
+
+    AuthenticatedUser verify(String token, Instant now) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+
+        // Signed by us, so well formed
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split(":", 3);
+        if (fields.length != 3 || Long.parseLong(fields[1]) <= now.getEpochSecond()) {
+            return null;
+        }
+        return new AuthenticatedUser(Long.parseLong(fields[0]), fields[2]);
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+}
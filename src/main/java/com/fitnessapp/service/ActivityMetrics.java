@@ -0,0 +1,43 @@
+package com.fitnessapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// All by myself
+// Business counters next to the built-in timers (http.server.requests per endpoint,
+// spring.data.repository.invocations per repository method, hikaricp.* pool gauges).
+// Counts taken inside a transaction are only added once it commits.
+@Component
+public class ActivityMetrics {
+
+    private final Counter personalRecords;
+    private final Counter sessionsSaved;
+    private final Counter loginFailures;
+
+    public ActivityMetrics(MeterRegistry registry) {
+        this.personalRecords = Counter.builder("fitnessapp.personal.records")
+                .description("Logged sets that set a new personal record")
+                .register(registry);
+        this.sessionsSaved = Counter.builder("fitnessapp.sessions.saved")
+                .description("Workout sessions saved")
+                .register(registry);
+        this.loginFailures = Counter.builder("fitnessapp.login.failures")
+                .description("Login attempts rejected for a wrong username or password")
+                .register(registry);
+    }
+
+    public void personalRecords(int count) {
+        if (count > 0) {
+            AfterCommit.run(() -> personalRecords.increment(count));
+        }
+    }
+
+    public void sessionSaved() {
+        AfterCommit.run(sessionsSaved::increment);
+    }
+
+    public void loginFailed() {
+        loginFailures.increment();
+    }
+}
@@ -0,0 +1,27 @@
+package com.fitnessapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// All by myself
+// Helper class
+// Defers in-memory side effects (caches, counters, rankings) of a write until its transaction commits,
+// so a rollback never leaves them ahead of the database. Outside a transaction the action runs at once.
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.repository.ExerciseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// All by myself
+// Service class
+// Immutable in-memory snapshot of the exercise table. Loaded on first use, dropped whenever an
+// Exercise is written (see ExerciseCatalogListener) and reloaded on the next read.
+@Service
+public class ExerciseCatalog {
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    private volatile Snapshot snapshot; // null means "reload on next read"
+    private final AtomicLong generation = new AtomicLong(); // bumped on every invalidation
+    private final ReentrantLock reloadLock = new ReentrantLock(); // one reload at a time
+
+    // One consistent view of the catalog; the Exercise instances are detached copies
+    public record Snapshot(List<Exercise> all, Map<Long, Exercise> byId, Map<String, List<Exercise>> byCategory, String etag) {}
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    public List<Exercise> all() {
+        return snapshot().all();
+    }
+
+    public Optional<Exercise> findById(Long id) {
+        return Optional.ofNullable(snapshot().byId().get(id));
+    }
+
+    public List<Exercise> findByCategory(String category) {
+        return snapshot().byCategory().getOrDefault(category, List.of());
+    }
+
+    // Drop the snapshot now and again after the current transaction commits,
+    // so a reader that reloaded mid-transaction cannot keep pre-commit data
+    public void invalidate() {
+        drop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop();
+                }
+            });
+        }
+    }
+
+    // Safety net for rows changed outside this application (other instances, manual SQL)
+    @Scheduled(fixedDelayString = "${fitnessapp.exercises.refresh-interval-ms:300000}")
+    public void periodicRefresh() {
+        drop();
+    }
+
+    private void drop() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot reload() {
+        reloadLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            long loadedAt = generation.get();
+            Snapshot fresh = build(exerciseRepository.findAll(Sort.by("id")));
+            // Only publish if nothing was invalidated while loading
+            if (generation.get() == loadedAt) {
+                snapshot = fresh;
+            }
+            return fresh;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static Snapshot build(List<Exercise> rows) {
+        List<Exercise> all = new ArrayList<>(rows.size());
+        Map<Long, Exercise> byId = new LinkedHashMap<>();
+        Map<String, List<Exercise>> byCategory = new LinkedHashMap<>();
+        StringBuilder fingerprint = new StringBuilder();
+
+        for (Exercise row : rows) {
+            Exercise copy = new Exercise(row.getId(), row.getName(), row.getCategory());
+            all.add(copy);
+            byId.put(copy.getId(), copy);
+            byCategory.computeIfAbsent(copy.getCategory(), c -> new ArrayList<>()).add(copy);
+            fingerprint.append(copy.getId()).append('|').append(copy.getName()).append('|').append(copy.getCategory()).append('\n');
+        }
+
+        Map<String, List<Exercise>> frozenCategories = new LinkedHashMap<>();
+        byCategory.forEach((category, list) -> frozenCategories.put(category, List.copyOf(list)));
+        return new Snapshot(List.copyOf(all), Collections.unmodifiableMap(byId),
+                Collections.unmodifiableMap(frozenCategories), etagOf(fingerprint.toString()));
+    }
+
+    // Strong validator: hash of every id, name and category in order
+    private static String etagOf(String fingerprint) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Exercise;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// All by myself
+// JPA entity listener
+// Invalidates the exercise catalog snapshot whenever an Exercise row is written.
+// Instantiated by Hibernate through Spring's bean container, so injection works here.
+public class ExerciseCatalogListener {
+
+    @Autowired
+    private ObjectProvider<ExerciseCatalog> exerciseCatalog; // looked up lazily to avoid a cycle with the EntityManagerFactory
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void exerciseChanged(Exercise exercise) {
+        ExerciseCatalog catalog = exerciseCatalog.getIfAvailable();
+        if (catalog != null) {
+            catalog.invalidate();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.fitnessapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// All by myself
+// Service class
+// In-memory exercise leaderboards per category, fed with every committed set, built on Space-Saving
+// summaries of `capacity` counters (see SpaceSaving for the guarantees):
+//   - all time (/popular): seeded from the exercise_usage_count counters on first use and exact as long as
+//     a category has no more exercises than counters. Reconcile drops it so it is reseeded from the table.
+//   - trending (/trending): one summary per time bucket (a day by default) for the last `buckets` buckets.
+//     A bucket of age a counts with weight decay^a. For each exercise |score - exact weighted count| is at
+//     most maxError = sum over buckets of decay^a * (smallest counter of that bucket once it is full),
+//     itself at most sum of decay^a * sets in bucket / capacity.
+// Both are per instance and count sets when they reach the server, not by the set's own timestamp.
+@Service
+public class ExerciseLeaderboard {
+
+    // One leaderboard entry; score is the (weighted) set count
+    public record Ranked(Long exerciseId, double score, double maxError) {}
+
+    private final int capacity;
+    private final int buckets;
+    private final long bucketMillis;
+    private final double decay;
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    private final class Board {
+        final ReentrantLock lock = new ReentrantLock();
+        SpaceSaving allTime; // null until seeded
+        final SpaceSaving[] window = new SpaceSaving[buckets];
+        final long[] windowBucket = new long[buckets]; // bucket number held by each slot
+
+        Board() {
+            Arrays.fill(windowBucket, -1);
+        }
+    }
+
+    public ExerciseLeaderboard(@Value("${fitnessapp.leaderboard.capacity:64}") int capacity,
+                               @Value("${fitnessapp.leaderboard.trending.buckets:7}") int buckets,
+                               @Value("${fitnessapp.leaderboard.trending.bucket-minutes:1440}") long bucketMinutes,
+                               @Value("${fitnessapp.leaderboard.trending.decay:0.8}") double decay) {
+        this.capacity = Math.max(1, capacity);
+        this.buckets = Math.max(1, buckets);
+        this.bucketMillis = Math.max(1, bucketMinutes) * 60_000;
+        this.decay = decay;
+    }
+
+    // Count sets of an exercise once the current transaction commits
+    public void recordAfterCommit(String category, Long exerciseId, long sets) {
+        if (category == null) {
+            return;
+        }
+        AfterCommit.run(() -> record(category, exerciseId, sets, System.currentTimeMillis()));
+    }
+
+    void record(String category, Long exerciseId, long sets, long nowMillis) {
+        Board board = boards.computeIfAbsent(category, c -> new Board());
+        long bucket = nowMillis / bucketMillis;
+        int slot = (int) Math.floorMod(bucket, (long) buckets);
+        board.lock.lock();
+        try {
+            if (board.windowBucket[slot] < bucket) {
+                board.window[slot] = new SpaceSaving(capacity); // slot reused: its old bucket left the window
+                board.windowBucket[slot] = bucket;
+            }
+            if (board.windowBucket[slot] == bucket) {
+                board.window[slot].offer(exerciseId, sets);
+            }
+            if (board.allTime != null) {
+                board.allTime.offer(exerciseId, sets);
+            }
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    // All-time ranking of a category, or null if it has not been seeded yet
+    public List<Ranked> popular(String category) {
+        Board board = boards.get(category);
+        if (board == null) {
+            return null;
+        }
+        board.lock.lock();
+        try {
+            if (board.allTime == null) {
+                return null;
+            }
+            List<Ranked> ranked = new ArrayList<>();
+            double maxError = board.allTime.maxError();
+            for (SpaceSaving.Counter c : board.allTime.counters()) {
+                ranked.add(new Ranked(c.key(), c.count(), maxError));
+            }
+            return sort(ranked, Integer.MAX_VALUE);
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    // Seed the all-time ranking of a category with exact counts (exercise id -> sets) unless already seeded.
+    // Only the `capacity` largest are kept; every other count is at most the smallest kept one, so the
+    // Space-Saving bounds hold from the start.
+    public void seed(String category, Map<Long, Long> counts) {
+        List<Map.Entry<Long, Long>> largest = new ArrayList<>(counts.entrySet());
+        largest.sort(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Board board = boards.computeIfAbsent(category, c -> new Board());
+        board.lock.lock();
+        try {
+            if (board.allTime != null) {
+                return;
+            }
+            SpaceSaving allTime = new SpaceSaving(capacity);
+            for (Map.Entry<Long, Long> entry : largest.subList(0, Math.min(capacity, largest.size()))) {
+                allTime.offer(entry.getKey(), entry.getValue());
+            }
+            board.allTime = allTime;
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    // Forget every all-time ranking; each is reseeded on its next read
+    public void resetAllTime() {
+        for (Board board : boards.values()) {
+            board.lock.lock();
+            try {
+                board.allTime = null;
+            } finally {
+                board.lock.unlock();
+            }
+        }
+    }
+
+    // Trending ranking of a category over the live buckets, best first
+    public List<Ranked> trending(String category, int limit) {
+        return trending(category, limit, System.currentTimeMillis());
+    }
+
+    List<Ranked> trending(String category, int limit, long nowMillis) {
+        Board board = boards.get(category);
+        if (board == null) {
+            return List.of();
+        }
+        long current = nowMillis / bucketMillis;
+        Map<Long, Double> scores = new HashMap<>();
+        double maxError = 0;
+        board.lock.lock();
+        try {
+            double weight = 1;
+            for (int age = 0; age < buckets; age++, weight *= decay) {
+                long bucket = current - age;
+                int slot = (int) Math.floorMod(bucket, (long) buckets);
+                if (board.windowBucket[slot] != bucket) {
+                    continue; // nothing logged in that bucket
+                }
+                SpaceSaving summary = board.window[slot];
+                for (SpaceSaving.Counter c : summary.counters()) {
+                    scores.merge(c.key(), weight * c.count(), Double::sum);
+                }
+                maxError += weight * summary.maxError();
+            }
+        } finally {
+            board.lock.unlock();
+        }
+
+        List<Ranked> ranked = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            ranked.add(new Ranked(entry.getKey(), entry.getValue(), maxError));
+        }
+        return sort(ranked, limit);
+    }
+
+    // Highest score first, ties by exercise id (same order as the counter table queries)
+    private static List<Ranked> sort(List<Ranked> ranked, int limit) {
+        ranked.sort(Comparator.comparingDouble(Ranked::score).reversed().thenComparing(Ranked::exerciseId));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+}
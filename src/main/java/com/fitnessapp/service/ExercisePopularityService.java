@@ -0,0 +1,284 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.ExerciseUsageCount;
+import com.fitnessapp.model.PopularityReconciliation;
+import com.fitnessapp.model.TrendingExercise;
+import com.fitnessapp.model.UserExerciseUsageCount;
+import com.fitnessapp.repository.ExerciseUsageCountRepository;
+import com.fitnessapp.repository.UserExerciseUsageCountRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// All by myself
+// Service class
+// Maintains materialized exercise popularity counters (global and per user) so the exercise
+// picker reads a handful of rows instead of aggregating the whole workout table.
+// Global and trending rankings are answered from the in-memory ExerciseLeaderboard.
+// Per-user counters are upserted in the transaction that logs the sets. The global counter of an exercise is
+// one row every user's log would otherwise lock until commit, so committed sets are added to a buffer instead
+// and written every flush interval, one upsert per exercise. Readers add the buffer to what is stored.
+@Service
+public class ExercisePopularityService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExercisePopularityService.class);
+
+    @Autowired
+    private ExerciseUsageCountRepository exerciseUsageCountRepository;
+
+    @Autowired
+    private UserExerciseUsageCountRepository userExerciseUsageCountRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExerciseCatalog exerciseCatalog;
+
+    @Autowired
+    private ExerciseLeaderboard exerciseLeaderboard;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Committed sets per exercise not yet added to exercise_usage_count
+    private final Map<Long, PendingUse> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock(); // one flush (or reconcile) at a time
+
+    private record PendingUse(String category, long sets) {
+        PendingUse plus(PendingUse other) {
+            return new PendingUse(category, sets + other.sets);
+        }
+    }
+
+    // Count logged sets; must run in the same transaction as the Workout insert
+    @Transactional
+    public void recordUse(String username, Exercise exercise, long sets) {
+        userExerciseUsageCountRepository.add(username, exercise.getId(), exercise.getCategory(), sets);
+        AfterCommit.run(() -> pending.merge(exercise.getId(), new PendingUse(exercise.getCategory(), sets), PendingUse::plus));
+        exerciseLeaderboard.recordAfterCommit(exercise.getCategory(), exercise.getId(), sets);
+    }
+
+    // Write buffered global counts in one transaction; returns the number of exercises flushed
+    @Scheduled(fixedDelayString = "${fitnessapp.popularity.flush-interval-ms:5000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            return inTransaction(this::flushPending);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Run work in one transaction; counts it takes out of the buffer go back in if the transaction fails
+    private <T> T inTransaction(Function<Map<Long, PendingUse>, T> work) {
+        Map<Long, PendingUse> taken = new HashMap<>();
+        try {
+            return transactionTemplate.execute(status -> work.apply(taken));
+        } catch (RuntimeException e) {
+            taken.forEach((exerciseId, use) -> pending.merge(exerciseId, use, PendingUse::plus));
+            throw e;
+        }
+    }
+
+    private int flushPending(Map<Long, PendingUse> taken) {
+        for (Long exerciseId : pending.keySet()) {
+            PendingUse use = pending.remove(exerciseId);
+            if (use != null) {
+                taken.put(exerciseId, use);
+                exerciseUsageCountRepository.add(exerciseId, use.category(), use.sets());
+            }
+        }
+        return taken.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    // Stored global counts of a category plus the buffered ones
+    private Map<Long, Long> globalCounts(String category) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (ExerciseUsageCount c : exerciseUsageCountRepository.findByCategoryOrderByUseCountDescExerciseIdAsc(category)) {
+            counts.put(c.getExerciseId(), c.getUseCount());
+        }
+        pending.forEach((exerciseId, use) -> {
+            if (category.equals(use.category())) {
+                counts.merge(exerciseId, use.sets(), Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    // Exercises of a category ordered by how often anyone logged them. Served from memory; the first read
+    // of a category (and the first after a reconcile) seeds it from the counter table. Sets committed while
+    // a category is being seeded may be counted twice until the next reconcile.
+    public List<Exercise> globalPopular(String category) {
+        List<ExerciseLeaderboard.Ranked> ranked = exerciseLeaderboard.popular(category);
+        if (ranked == null) {
+            exerciseLeaderboard.seed(category, globalCounts(category));
+            ranked = exerciseLeaderboard.popular(category);
+        }
+        return resolve(ranked.stream().map(ExerciseLeaderboard.Ranked::exerciseId).toList());
+    }
+
+    // Exercises of a category logged most in the recent time buckets, newer buckets weighing more
+    public List<TrendingExercise> trending(String category, int limit) {
+        Map<Long, Exercise> byId = exerciseCatalog.snapshot().byId();
+        List<TrendingExercise> trending = new ArrayList<>();
+        for (ExerciseLeaderboard.Ranked r : exerciseLeaderboard.trending(category, limit)) {
+            Exercise exercise = byId.get(r.exerciseId());
+            if (exercise != null) {
+                trending.add(new TrendingExercise(exercise.getId(), exercise.getName(), exercise.getCategory(),
+                        Math.round(r.score() * 100) / 100.0, Math.round(r.maxError() * 100) / 100.0));
+            }
+        }
+        return trending;
+    }
+
+    // Exercises of a category ordered by how often this user logged them
+    @Transactional(readOnly = true)
+    public List<Exercise> mostUsed(String username, String category) {
+        List<Long> ids = new ArrayList<>();
+        for (UserExerciseUsageCount c : userExerciseUsageCountRepository.findByUsernameAndCategoryOrderByUseCountDescExerciseIdAsc(username, category)) {
+            ids.add(c.getExerciseId());
+        }
+        return resolve(ids);
+    }
+
+    // Exercises of a category ordered by how often everyone else logged them (global minus the user's own counts)
+    @Transactional(readOnly = true)
+    public List<Exercise> popularExcludingUser(String category, String username) {
+        Map<Long, Long> own = new HashMap<>();
+        for (UserExerciseUsageCount c : userExerciseUsageCountRepository.findByUsernameAndCategoryOrderByUseCountDescExerciseIdAsc(username, category)) {
+            own.put(c.getExerciseId(), c.getUseCount());
+        }
+
+        record Ranked(Long exerciseId, long count) {}
+        List<Ranked> others = new ArrayList<>();
+        for (Map.Entry<Long, Long> global : globalCounts(category).entrySet()) {
+            long count = global.getValue() - own.getOrDefault(global.getKey(), 0L);
+            if (count > 0) {
+                others.add(new Ranked(global.getKey(), count));
+            }
+        }
+        others.sort(Comparator.comparingLong(Ranked::count).reversed().thenComparing(Ranked::exerciseId));
+        return resolve(others.stream().map(Ranked::exerciseId).toList());
+    }
+
+    // Recompute every counter from the workout table, correct the stored values and report drift.
+    // Runs in one transaction that first locks every user, so no set is logged until it commits, and then
+    // flushes the buffer, so every committed set is stored. Each counter is corrected by the difference rather
+    // than overwritten. A set whose commit has not reached the buffer yet when the lock is taken may be
+    // counted twice until the next run.
+    @Scheduled(cron = "${fitnessapp.popularity.reconcile-cron:0 30 3 * * *}")
+    public PopularityReconciliation reconcile() {
+        flushLock.lock();
+        try {
+            PopularityReconciliation result = inTransaction(taken -> {
+                userRepository.lockAllForWrite();
+                flushPending(taken);
+                return correctCounters();
+            });
+            // Reseed the in-memory all-time rankings from the reconciled counters
+            exerciseLeaderboard.resetAllTime();
+            if (!result.drift().isEmpty()) {
+                log.warn("Popularity counters drifted ({} entries): {}", result.drift().size(), result.drift());
+            }
+            return result;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private PopularityReconciliation correctCounters() {
+        record UserKey(String username, Long exerciseId) {
+            @Override
+            public String toString() {
+                return username + "/" + exerciseId;
+            }
+        }
+        List<String> drift = new ArrayList<>();
+
+        Map<Long, Long> storedGlobal = new HashMap<>();
+        for (ExerciseUsageCount c : exerciseUsageCountRepository.findAll()) {
+            storedGlobal.put(c.getExerciseId(), c.getUseCount());
+        }
+        Map<UserKey, Long> storedUser = new HashMap<>();
+        for (UserExerciseUsageCount c : userExerciseUsageCountRepository.findAll()) {
+            storedUser.put(new UserKey(c.getUsername(), c.getExerciseId()), c.getUseCount());
+        }
+
+        int globalCounters = 0;
+        for (Object[] row : workoutRepository.countByExercise()) {
+            Long exerciseId = (Long) row[0];
+            long actual = ((Number) row[2]).longValue();
+            long stored = storedGlobal.getOrDefault(exerciseId, 0L);
+            storedGlobal.remove(exerciseId);
+            globalCounters++;
+            if (stored != actual) {
+                drift.add("exercise " + exerciseId + ": stored=" + stored + ", actual=" + actual);
+                exerciseUsageCountRepository.add(exerciseId, (String) row[1], actual - stored);
+            }
+        }
+        for (Map.Entry<Long, Long> orphan : storedGlobal.entrySet()) {
+            drift.add("exercise " + orphan.getKey() + ": stored=" + orphan.getValue() + ", actual=0");
+            exerciseUsageCountRepository.increment(orphan.getKey(), -orphan.getValue());
+        }
+
+        int userCounters = 0;
+        for (Object[] row : workoutRepository.countByUserAndExercise()) {
+            UserKey key = new UserKey((String) row[0], (Long) row[1]);
+            long actual = ((Number) row[3]).longValue();
+            long stored = storedUser.getOrDefault(key, 0L);
+            storedUser.remove(key);
+            userCounters++;
+            if (stored != actual) {
+                drift.add("user " + key + ": stored=" + stored + ", actual=" + actual);
+                userExerciseUsageCountRepository.add(key.username(), key.exerciseId(), (String) row[2], actual - stored);
+            }
+        }
+        for (Map.Entry<UserKey, Long> orphan : storedUser.entrySet()) {
+            drift.add("user " + orphan.getKey() + ": stored=" + orphan.getValue() + ", actual=0");
+            userExerciseUsageCountRepository.increment(orphan.getKey().username(), orphan.getKey().exerciseId(), -orphan.getValue());
+        }
+
+        exerciseUsageCountRepository.deleteUnused();
+        userExerciseUsageCountRepository.deleteUnused();
+        return new PopularityReconciliation(globalCounters, userCounters, drift);
+    }
+
+    // Map ranked ids to exercises from the catalog snapshot, keeping the ranking order
+    private List<Exercise> resolve(List<Long> ids) {
+        Map<Long, Exercise> byId = exerciseCatalog.snapshot().byId();
+        List<Exercise> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Exercise exercise = byId.get(id);
+            if (exercise != null) {
+                ordered.add(exercise);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,103 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.IdempotencyRecord;
+import com.fitnessapp.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// All by myself
+// Service class
+// Dedup store behind the Idempotency-Key header (see IdempotencyFilter). Three layers:
+// - in-flight: one future per key being handled right now, so concurrent duplicates wait for the first
+// - memory: completed responses in a size- and TTL-bounded cache ("idempotency" cache metrics)
+// - database: the same responses in idempotency_record, so replays survive restarts and reach other instances
+@Service
+public class IdempotencyStore {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // A response as replayed to the client, with the hash of the request that produced it
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body) {}
+
+    public IdempotencyStore(@Value("${fitnessapp.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${fitnessapp.idempotency.cache-size:100000}") long cacheSize,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.ttl = Duration.ofHours(ttlHours);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, completed, "idempotency"));
+    }
+
+    // Stored response for a key: memory first, then the database (not expired)
+    public Optional<StoredResponse> find(String key) {
+        StoredResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        IdempotencyRecord record = idempotencyRecordRepository.findByIdempotencyKey(key);
+        if (record == null || record.getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatus(), record.getContentType(),
+                record.getBody() == null ? new byte[0] : record.getBody().getBytes(StandardCharsets.UTF_8));
+        completed.put(key, stored);
+        return Optional.of(stored);
+    }
+
+    // Take ownership of a key. Returns null if the caller now owns it and must handle the request
+    // (then call complete()), otherwise the pending result of the request that already owns it.
+    public CompletableFuture<StoredResponse> claim(String key) {
+        return inFlight.putIfAbsent(key, new CompletableFuture<>());
+    }
+
+    // Finish an owned key. A null response (server error) is not stored: waiting duplicates
+    // and later retries run the request again.
+    public void complete(String key, StoredResponse response) {
+        boolean isNew = response != null && completed.asMap().putIfAbsent(key, response) == null;
+        CompletableFuture<StoredResponse> mine = inFlight.remove(key);
+        if (mine != null) {
+            mine.complete(response);
+        }
+        if (isNew) {
+            persist(key, response);
+        }
+    }
+
+    private void persist(String key, StoredResponse response) {
+        try {
+            idempotencyRecordRepository.save(new IdempotencyRecord(key, response.requestHash(), response.status(), response.contentType(),
+                    new String(response.body(), StandardCharsets.UTF_8), LocalDateTime.now().plus(ttl)));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored this key first; its response is the one replayed from the database
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fitnessapp.idempotency.purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+}
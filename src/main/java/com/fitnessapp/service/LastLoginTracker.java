@@ -0,0 +1,118 @@
+package com.fitnessapp.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// All by myself
+// Service class
+// Write-behind buffer for last-login timestamps. Logins only touch memory; every flush interval the
+// pending entries are written in one transaction, as one UPDATE per MAX_NAMES_PER_UPDATE users that sets
+// each user's own timestamp through a CASE on the username.
+// Readers should go through lastLoginAt() so they see logins that have not been flushed yet.
+@Service
+public class LastLoginTracker {
+
+    private static final int MAX_NAMES_PER_UPDATE = 1000; // keep IN lists within driver limits
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock(); // one flush at a time
+
+    // Remember a login now; the row is written on the next flush
+    public void record(String username) {
+        record(username, LocalDateTime.now());
+    }
+
+    public void record(String username, LocalDateTime at) {
+        pending.merge(username, at, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    // Latest known login: the pending one if there is one, otherwise the stored value
+    public LocalDateTime lastLoginAt(String username, LocalDateTime stored) {
+        LocalDateTime buffered = pending.get(username);
+        if (buffered == null) {
+            return stored;
+        }
+        return stored != null && stored.isAfter(buffered) ? stored : buffered;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    // Write pending logins; returns the number of users flushed.
+    // Entries are removed only after the transaction committed, so a failed flush is retried next time.
+    @Scheduled(fixedDelayString = "${fitnessapp.last-login.flush-interval-ms:10000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<String, LocalDateTime> batch = new HashMap<>(pending);
+        List<String> usernames = new ArrayList<>(batch.keySet());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < usernames.size(); i += MAX_NAMES_PER_UPDATE) {
+                update(usernames.subList(i, Math.min(i + MAX_NAMES_PER_UPDATE, usernames.size())), batch);
+            }
+        });
+        batch.forEach((username, at) -> {
+            // Bulk UPDATE bypasses the entity listener, so drop the cached profile by hand
+            userDirectory.invalidate(username);
+            // Keep the entry if a newer login arrived while we were writing
+            pending.remove(username, at);
+        });
+        return batch.size();
+    }
+
+    // One statement for a chunk of users; a stored login newer than the buffered one is left alone
+    private void update(List<String> usernames, Map<String, LocalDateTime> at) {
+        StringBuilder hql = new StringBuilder("UPDATE User u SET u.lastLoginAt = CASE");
+        for (int i = 0; i < usernames.size(); i++) {
+            hql.append(" WHEN u.username = :u").append(i)
+               .append(" AND (u.lastLoginAt IS NULL OR u.lastLoginAt < :t").append(i).append(") THEN :t").append(i);
+        }
+        hql.append(" ELSE u.lastLoginAt END WHERE u.username IN :usernames");
+
+        Query query = entityManager.createQuery(hql.toString());
+        for (int i = 0; i < usernames.size(); i++) {
+            query.setParameter("u" + i, usernames.get(i));
+            query.setParameter("t" + i, at.get(usernames.get(i)));
+        }
+        query.setParameter("usernames", usernames);
+        query.executeUpdate();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
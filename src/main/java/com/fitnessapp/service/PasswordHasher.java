@@ -0,0 +1,154 @@
+package com.fitnessapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// All by myself
+// Service class
+// BCrypt hashing and verification on a small dedicated pool, so a login storm queues CPU-bound work here
+// instead of occupying every request thread with it. The queue is bounded: when it is full, or a job waits
+// longer than the timeout, callers get Saturated right away and answer 503 with Retry-After.
+// The work factor is fitnessapp.auth.bcrypt-strength, or with 0 the largest strength whose hash takes at
+// most target-hash-ms on this machine (measured at startup, never below MIN_STRENGTH).
+// Passwords stored before hashing was introduced are plaintext; matches() still accepts them and
+// needsRehash() tells the caller to replace them.
+@Service
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+    private static final int CALIBRATION_STRENGTH = 8;
+
+    private final ThreadPoolExecutor executor;
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+    private final long timeoutMs;
+
+    // Thrown when the hashing pool cannot take or finish a job in time
+    public static class Saturated extends RuntimeException {
+        public Saturated(String message) {
+            super(message);
+        }
+    }
+
+    public PasswordHasher(@Value("${fitnessapp.auth.bcrypt-strength:0}") int configuredStrength,
+                          @Value("${fitnessapp.auth.target-hash-ms:250}") long targetHashMs,
+                          @Value("${fitnessapp.auth.hash-threads:0}") int threads,
+                          @Value("${fitnessapp.auth.hash-queue-size:64}") int queueSize,
+                          @Value("${fitnessapp.auth.hash-timeout-ms:5000}") long timeoutMs,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.strength = configuredStrength > 0 ? configuredStrength : calibrate(targetHashMs);
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.timeoutMs = timeoutMs;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.ifAvailable(registry -> ExecutorServiceMetrics.monitor(registry, executor, "password-hashing"));
+        log.info("Password hashing: bcrypt strength {}, {} threads, queue {}", strength, poolSize, queueSize);
+    }
+
+    public int strength() {
+        return strength;
+    }
+
+    // Hash a new password
+    public String hash(String raw) {
+        return run(() -> encoder.encode(raw));
+    }
+
+    // Check a password against what is stored: a BCrypt hash, or a plaintext password from before hashing
+    public boolean matches(String raw, String stored) {
+        if (raw == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> encoder.matches(raw, stored));
+    }
+
+    // Stored password should be replaced after a successful login: plaintext, or hashed with a lower strength
+    public boolean needsRehash(String stored) {
+        return !isHashed(stored) || encoder.upgradeEncoding(stored);
+    }
+
+    static boolean isHashed(String stored) {
+        return stored.length() == 60 && (stored.startsWith("$2a$") || stored.startsWith("$2b$") || stored.startsWith("$2y$"));
+    }
+
+    <T> T run(Callable<T> job) {
+        Future<T> future;
+        try {
+            future = executor.submit(job);
+        } catch (RejectedExecutionException e) {
+            throw new Saturated("Password hashing queue is full");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new Saturated("Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new Saturated("Interrupted while hashing");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Jobs waiting for a free worker
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    // Time a few hashes at a low strength and scale: every strength step doubles the work
+    static int calibrate(long targetMs) {
+        String salt = BCrypt.gensalt(CALIBRATION_STRENGTH);
+        BCrypt.hashpw("warm-up", salt); // JIT
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double ratio = targetMs * 1_000_000.0 / Math.max(best, 1);
+        int strength = CALIBRATION_STRENGTH + (int) Math.floor(Math.log(ratio) / Math.log(2));
+        return Math.max(MIN_STRENGTH, Math.min(MAX_STRENGTH, strength));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,107 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.PersonalRecord;
+import com.fitnessapp.repository.PersonalRecordRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// All by myself
+// Service class
+// Maintains the per-user, per-exercise best lift index used for PR detection.
+// A bounded cache of committed bests answers most "not a PR" checks without touching the database;
+// anything that might be a PR goes through a conditional UPDATE so the index stays correct.
+@Service
+public class PersonalRecordService {
+
+    @Autowired
+    private PersonalRecordRepository personalRecordRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<LiftKey, Double> bestLifts;
+
+    record LiftKey(String username, Long exerciseId) {}
+
+    public PersonalRecordService(@Value("${fitnessapp.pr-index.cache-size:10000}") long cacheSize) {
+        this.bestLifts = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    // Record a lift and tell whether it is a new personal record.
+    // Must run in the same transaction as the Workout insert, after UserRepository.lockForWrite on the lifter:
+    // the lock is what keeps two first lifts of the same exercise from both inserting the row.
+    @Transactional
+    public boolean recordLift(String username, Long exerciseId, double weight) {
+        LiftKey key = new LiftKey(username, exerciseId);
+
+        // Cached bests only ever come from committed rows and only grow, so this shortcut is safe
+        Double cachedBest = bestLifts.getIfPresent(key);
+        if (cachedBest != null && weight <= cachedBest) {
+            return false;
+        }
+
+        if (personalRecordRepository.raiseBestWeight(username, exerciseId, weight, LocalDateTime.now()) > 0) {
+            cacheAfterCommit(key, weight);
+            return true;
+        }
+
+        PersonalRecord existing = personalRecordRepository.findByUsernameAndExerciseId(username, exerciseId);
+        if (existing == null) {
+            // First lift for this exercise is always a PR; the user lock means nobody else is inserting it
+            personalRecordRepository.save(new PersonalRecord(username, exerciseId, weight));
+            cacheAfterCommit(key, weight);
+            return true;
+        }
+
+        cacheAfterCommit(key, existing.getBestWeight());
+        return false;
+    }
+
+    // Current best for (user, exercise) read from the index table, or null if nothing was logged yet.
+    // Reads the table rather than the cache because callers derive PR flags from it.
+    @Transactional(readOnly = true)
+    public Double currentBest(String username, Long exerciseId) {
+        PersonalRecord existing = personalRecordRepository.findByUsernameAndExerciseId(username, exerciseId);
+        if (existing == null) {
+            return null;
+        }
+        cacheAfterCommit(new LiftKey(username, exerciseId), existing.getBestWeight());
+        return existing.getBestWeight();
+    }
+
+    // Recompute the whole index from existing workout rows, with every user locked so no lift is logged meanwhile
+    @Transactional
+    public int rebuild() {
+        userRepository.lockAllForWrite();
+        personalRecordRepository.deleteAllInBatch();
+
+        List<PersonalRecord> records = new ArrayList<>();
+        for (Object[] row : workoutRepository.findBestWeightsByUserAndExercise()) {
+            records.add(new PersonalRecord((String) row[0], (Long) row[1], ((Number) row[2]).doubleValue()));
+        }
+        personalRecordRepository.saveAll(records);
+
+        AfterCommit.run(bestLifts::invalidateAll);
+        return records.size();
+    }
+
+    // Only publish to the cache once the transaction commits, so a rollback never leaves a best that isn't in the table
+    private void cacheAfterCommit(LiftKey key, double best) {
+        AfterCommit.run(() -> bestLifts.asMap().merge(key, best, Math::max));
+    }
+}
@@ -0,0 +1,259 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.ExerciseProgression;
+import com.fitnessapp.model.ProgressionView;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.repository.ExerciseProgressionRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// All by myself
+// Service class
+// Estimated one-rep max (e1RM) progression per (user, exercise). Each logged set updates a small running
+// state (best e1RM, the top e1RM of the most recent sessions) in the same transaction as the insert,
+// so reading a trend is one indexed row plus a bounded amount of arithmetic, however long the history.
+// A session is a training day. Sets with more reps than max-reps are too far from a single to estimate from.
+// Each row keeps the formula it was computed with. After the configured formula changes, rows keep being
+// updated with their own formula until the rebuild started once the application is up replaces them.
+@Service
+public class ProgressionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressionService.class);
+
+    // Rolling average window
+    static final int WINDOW_DAYS = 28;
+
+    @Autowired
+    private ExerciseProgressionRepository progressionRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Formula formula;
+    private final int maxReps;
+    private final int slopeSessions;
+
+    // e1RM formulas; a single is its own one-rep max under both
+    enum Formula {
+        EPLEY {
+            @Override
+            double estimate(double weight, int reps) {
+                return reps == 1 ? weight : weight * (1 + reps / 30.0);
+            }
+        },
+        BRZYCKI {
+            @Override
+            double estimate(double weight, int reps) {
+                return reps == 1 ? weight : weight * 36 / (37 - reps);
+            }
+        };
+
+        abstract double estimate(double weight, int reps);
+    }
+
+    public ProgressionService(@Value("${fitnessapp.progression.formula:epley}") String formula,
+                              @Value("${fitnessapp.progression.max-reps:12}") int maxReps,
+                              @Value("${fitnessapp.progression.slope-sessions:6}") int slopeSessions) {
+        this.formula = Formula.valueOf(formula.trim().toUpperCase(Locale.ROOT));
+        // Brzycki is undefined from 37 reps on
+        this.maxReps = Math.max(1, Math.min(maxReps, 36));
+        this.slopeSessions = Math.max(2, Math.min(slopeSessions, ProgressionState.CAPACITY));
+    }
+
+    // Add saved sets of one user to their progression state; must run in the same transaction as the
+    // Workout insert, after UserRepository.lockForWrite on that user (an exercise's first set has no row
+    // to lock yet). Each touched exercise's row is locked, updated in memory and written once.
+    @Transactional
+    public void record(String username, List<Workout> workouts) {
+        Map<Long, List<Workout>> byExercise = new LinkedHashMap<>();
+        for (Workout workout : workouts) {
+            if (counts(workout.getReps())) {
+                byExercise.computeIfAbsent(workout.getExercise().getId(), id -> new ArrayList<>()).add(workout);
+            }
+        }
+        if (byExercise.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ExerciseProgression> rows = new HashMap<>();
+        for (ExerciseProgression row : progressionRepository.lockForUpdate(username, byExercise.keySet())) {
+            rows.put(row.getExerciseId(), row);
+        }
+        List<ExerciseProgression> changed = new ArrayList<>(byExercise.size());
+        for (Map.Entry<Long, List<Workout>> entry : byExercise.entrySet()) {
+            ExerciseProgression row = rows.get(entry.getKey());
+            Formula rowFormula = row == null ? null : formulaOf(row);
+            if (rowFormula == null) {
+                // New exercise, or a formula this version does not know: start this row over
+                row = reset(row, username, entry.getKey());
+                rowFormula = formula;
+            }
+            ProgressionState state = ProgressionState.decode(row.getState());
+            for (Workout workout : entry.getValue()) {
+                apply(row, state, rowFormula, workout.getTimestamp().toLocalDate(), workout.getWeight(), workout.getReps());
+            }
+            row.setState(state.encode());
+            row.setUpdatedAt(LocalDateTime.now());
+            changed.add(row);
+        }
+        progressionRepository.saveAll(changed);
+    }
+
+    // Trend of one exercise, or null if no set of it has been counted
+    @Transactional(readOnly = true)
+    public ProgressionView view(String username, Long exerciseId, LocalDate today) {
+        ExerciseProgression row = progressionRepository.findByUsernameAndExerciseId(username, exerciseId);
+        return row == null ? null : toView(row, today);
+    }
+
+    // Trends of every exercise the user has logged, by exercise id
+    @Transactional(readOnly = true)
+    public List<ProgressionView> viewAll(String username, LocalDate today) {
+        List<ProgressionView> views = new ArrayList<>();
+        for (ExerciseProgression row : progressionRepository.findByUsernameOrderByExerciseId(username)) {
+            views.add(toView(row, today));
+        }
+        return views;
+    }
+
+    // Recompute every row from the workout table with the configured formula. Sets are streamed
+    // grouped by (user, exercise) in time order; each group is written when the next one starts.
+    // Every user stays locked until the end, so no set is logged between the delete and the reinsert.
+    @Transactional
+    public int rebuild() {
+        userRepository.lockAllForWrite();
+        progressionRepository.deleteAllInBatch();
+
+        int rows = 0;
+        List<ExerciseProgression> pending = new ArrayList<>();
+        ExerciseProgression current = null;
+        ProgressionState state = null;
+        try (Stream<Object[]> sets = workoutRepository.streamSetsForProgression()) {
+            Iterator<Object[]> it = sets.iterator();
+            while (it.hasNext()) {
+                Object[] set = it.next();
+                String username = (String) set[0];
+                Long exerciseId = (Long) set[1];
+                int reps = ((Number) set[4]).intValue();
+                if (!counts(reps)) {
+                    continue;
+                }
+                if (current == null || !current.getUsername().equals(username) || !Objects.equals(current.getExerciseId(), exerciseId)) {
+                    if (current != null) {
+                        pending.add(finish(current, state));
+                    }
+                    current = reset(null, username, exerciseId);
+                    state = new ProgressionState();
+                }
+                apply(current, state, formula, ((LocalDateTime) set[2]).toLocalDate(), ((Number) set[3]).doubleValue(), reps);
+
+                if (pending.size() >= 500) {
+                    rows += saveAndClear(pending);
+                }
+            }
+        }
+        if (current != null) {
+            pending.add(finish(current, state));
+        }
+        rows += saveAndClear(pending);
+        return rows;
+    }
+
+    // Rebuild once at startup if any row was computed with another formula than the configured one
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfFormulaChanged() {
+        if (!progressionRepository.existsByFormulaNot(formula.name())) {
+            return;
+        }
+        log.warn("Progression rows computed with another formula than {}, rebuilding", formula);
+        int rows = transactionTemplate.execute(status -> rebuild());
+        log.info("Progression rebuilt with {}: {} entries", formula, rows);
+    }
+
+    private boolean counts(int reps) {
+        return reps >= 1 && reps <= maxReps;
+    }
+
+    private void apply(ExerciseProgression row, ProgressionState state, Formula formula, LocalDate day, double weight, int reps) {
+        double e1rm = ProgressionState.round(formula.estimate(weight, reps));
+        if (row.getSetsCounted() == 0 || e1rm > row.getBestE1rm()) {
+            row.setBestE1rm(e1rm);
+            row.setBestE1rmOn(day);
+        }
+        row.setSetsCounted(row.getSetsCounted() + 1);
+        state.add(day, e1rm);
+    }
+
+    private static Formula formulaOf(ExerciseProgression row) {
+        try {
+            return Formula.valueOf(row.getFormula());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private ExerciseProgression reset(ExerciseProgression row, String username, Long exerciseId) {
+        if (row == null) {
+            return new ExerciseProgression(username, exerciseId, formula.name());
+        }
+        row.setFormula(formula.name());
+        row.setBestE1rm(0);
+        row.setBestE1rmOn(null);
+        row.setSetsCounted(0);
+        row.setState("");
+        return row;
+    }
+
+    private ExerciseProgression finish(ExerciseProgression row, ProgressionState state) {
+        row.setState(state.encode());
+        row.setUpdatedAt(LocalDateTime.now());
+        return row;
+    }
+
+    private int saveAndClear(List<ExerciseProgression> pending) {
+        int saved = pending.size();
+        progressionRepository.saveAll(pending);
+        pending.clear();
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+
+    private ProgressionView toView(ExerciseProgression row, LocalDate today) {
+        ProgressionState state = ProgressionState.decode(row.getState());
+        return new ProgressionView(row.getExerciseId(), row.getFormula().toLowerCase(Locale.ROOT), row.getBestE1rm(),
+                row.getBestE1rmOn(), row.getSetsCounted(), state.rollingAverage(today, WINDOW_DAYS),
+                state.sessionsWithin(today, WINDOW_DAYS), state.slope(slopeSessions), state.sessionDates(), state.sessionTops());
+    }
+}
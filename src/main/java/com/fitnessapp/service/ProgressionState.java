@@ -0,0 +1,157 @@
+package com.fitnessapp.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// All by myself
+// Recent session tops of one (user, exercise): the best e1RM of each training day, oldest first, at most
+// CAPACITY of them. Adding a set and every statistic touch at most CAPACITY entries, so the cost does not
+// grow with the length of the history. Values are kept rounded to 0.01 kg so a decoded snapshot equals
+// the state that was encoded.
+//
+// Snapshot: "epochDay:e1rm;epochDay:e1rm;..." (empty string: no sessions). 28 entries fit in ~400 chars.
+// Not thread-safe: ProgressionService works on a locked row.
+final class ProgressionState {
+
+    static final int CAPACITY = 28;
+
+    private final long[] days = new long[CAPACITY];
+    private final double[] tops = new double[CAPACITY];
+    private int size;
+
+    static ProgressionState decode(String snapshot) {
+        ProgressionState state = new ProgressionState();
+        if (snapshot == null || snapshot.isEmpty()) {
+            return state;
+        }
+        for (String entry : snapshot.split(";")) {
+            int colon = entry.indexOf(':');
+            if (colon < 0 || state.size == CAPACITY) {
+                throw new IllegalArgumentException("Malformed progression snapshot");
+            }
+            state.days[state.size] = Long.parseLong(entry, 0, colon, 10);
+            state.tops[state.size] = Double.parseDouble(entry.substring(colon + 1));
+            state.size++;
+        }
+        return state;
+    }
+
+    String encode() {
+        StringBuilder sb = new StringBuilder(size * 14);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(';');
+            }
+            sb.append(days[i]).append(':').append(BigDecimal.valueOf(tops[i]).stripTrailingZeros().toPlainString());
+        }
+        return sb.toString();
+    }
+
+    // Count one set's e1RM towards its day. Days older than everything kept are ignored once the state
+    // is full; otherwise the day is inserted in order and the oldest session drops out.
+    void add(LocalDate day, double e1rm) {
+        long epochDay = day.toEpochDay();
+        double value = round(e1rm);
+
+        int i = size - 1;
+        while (i >= 0 && days[i] > epochDay) {
+            i--;
+        }
+        if (i >= 0 && days[i] == epochDay) {
+            tops[i] = Math.max(tops[i], value);
+            return;
+        }
+        int insertAt = i + 1;
+        if (size == CAPACITY) {
+            if (insertAt == 0) {
+                return; // older than every kept session
+            }
+            // Drop the oldest session to make room
+            System.arraycopy(days, 1, days, 0, insertAt - 1);
+            System.arraycopy(tops, 1, tops, 0, insertAt - 1);
+            insertAt--;
+        } else {
+            System.arraycopy(days, insertAt, days, insertAt + 1, size - insertAt);
+            System.arraycopy(tops, insertAt, tops, insertAt + 1, size - insertAt);
+            size++;
+        }
+        days[insertAt] = epochDay;
+        tops[insertAt] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Sessions within the last windowDays days up to and including today
+    int sessionsWithin(LocalDate today, int windowDays) {
+        long first = today.toEpochDay() - windowDays + 1;
+        int count = 0;
+        for (int i = size - 1; i >= 0 && days[i] >= first; i--) {
+            if (days[i] <= today.toEpochDay()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Mean session top over the last windowDays days, or null when there was no session
+    Double rollingAverage(LocalDate today, int windowDays) {
+        long first = today.toEpochDay() - windowDays + 1;
+        double sum = 0;
+        int count = 0;
+        for (int i = size - 1; i >= 0 && days[i] >= first; i--) {
+            if (days[i] <= today.toEpochDay()) {
+                sum += tops[i];
+                count++;
+            }
+        }
+        return count == 0 ? null : round(sum / count);
+    }
+
+    // Least-squares slope of the session top against session number over the last n sessions
+    // (kg per session), or null with fewer than two sessions
+    Double slope(int n) {
+        int count = Math.min(n, size);
+        if (count < 2) {
+            return null;
+        }
+        int from = size - count;
+        double meanX = (count - 1) / 2.0;
+        double meanY = 0;
+        for (int i = from; i < size; i++) {
+            meanY += tops[i];
+        }
+        meanY /= count;
+        double covariance = 0;
+        double variance = 0;
+        for (int i = from; i < size; i++) {
+            double dx = (i - from) - meanX;
+            covariance += dx * (tops[i] - meanY);
+            variance += dx * dx;
+        }
+        return round(covariance / variance);
+    }
+
+    List<LocalDate> sessionDates() {
+        List<LocalDate> dates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dates.add(LocalDate.ofEpochDay(days[i]));
+        }
+        return dates;
+    }
+
+    List<Double> sessionTops() {
+        List<Double> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(tops[i]);
+        }
+        return values;
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.fitnessapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// All by myself
+// Service class
+// In-process token buckets per (route, client), so a credential-stuffing burst against login or a client stuck
+// in a loop on /log is turned away before it reaches the database. Each route has one limit per client IP and
+// one per user (callers pick the key, see RateLimitFilter and AuthController): a bucket holds up to `capacity` requests and refills at `per-minute`. Taking a token is a
+// compare-and-set on the bucket's immutable state, so concurrent requests never block each other.
+// Buckets live in a Caffeine cache bounded by max-keys and dropped after idle-minutes without a request
+// (never sooner than a full refill takes, so dropping one cannot hand out more than a full bucket would).
+// Rejections are counted as fitnessapp.rate.limit.rejections{route,scope}.
+@Service
+public class RateLimiter {
+
+    public enum Route { AUTH, LOG }
+
+    public enum Scope { IP, USER }
+
+    // Bucket size and refill rate; capacity 0 switches the limit off
+    record Limit(double capacity, double tokensPerNano) {
+
+        static Limit of(double capacity, double perMinute) {
+            return new Limit(capacity, perMinute / TimeUnit.MINUTES.toNanos(1));
+        }
+
+        boolean enabled() {
+            return capacity > 0 && tokensPerNano > 0;
+        }
+
+        long fullRefillNanos() {
+            return enabled() ? (long) (capacity / tokensPerNano) : 0;
+        }
+    }
+
+    // Tokens left as of a point in time; replaced as a whole on every change
+    private record State(double tokens, long updatedAt) {}
+
+    private record Key(Route route, Scope scope, String client) {}
+
+    private final boolean enabled;
+    private final Map<Route, Map<Scope, Limit>> limits = new EnumMap<>(Route.class);
+    private final Map<Route, Map<Scope, Counter>> rejections = new EnumMap<>(Route.class);
+    private final Cache<Key, AtomicReference<State>> buckets;
+
+    public RateLimiter(@Value("${fitnessapp.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${fitnessapp.rate-limit.max-keys:100000}") long maxKeys,
+                       @Value("${fitnessapp.rate-limit.idle-minutes:10}") long idleMinutes,
+                       @Value("${fitnessapp.rate-limit.auth.per-ip.capacity:20}") double authIpCapacity,
+                       @Value("${fitnessapp.rate-limit.auth.per-ip.per-minute:20}") double authIpPerMinute,
+                       @Value("${fitnessapp.rate-limit.auth.per-user.capacity:5}") double authUserCapacity,
+                       @Value("${fitnessapp.rate-limit.auth.per-user.per-minute:5}") double authUserPerMinute,
+                       @Value("${fitnessapp.rate-limit.log.per-ip.capacity:300}") double logIpCapacity,
+                       @Value("${fitnessapp.rate-limit.log.per-ip.per-minute:600}") double logIpPerMinute,
+                       @Value("${fitnessapp.rate-limit.log.per-user.capacity:60}") double logUserCapacity,
+                       @Value("${fitnessapp.rate-limit.log.per-user.per-minute:120}") double logUserPerMinute,
+                       MeterRegistry registry) {
+        this.enabled = enabled;
+        limits.put(Route.AUTH, limits(Limit.of(authIpCapacity, authIpPerMinute), Limit.of(authUserCapacity, authUserPerMinute)));
+        limits.put(Route.LOG, limits(Limit.of(logIpCapacity, logIpPerMinute), Limit.of(logUserCapacity, logUserPerMinute)));
+
+        long longestRefill = limits.values().stream()
+                .flatMap(byScope -> byScope.values().stream())
+                .mapToLong(Limit::fullRefillNanos)
+                .max().orElse(0);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(Math.max(TimeUnit.MINUTES.toNanos(idleMinutes), longestRefill)))
+                .build();
+
+        for (Route route : Route.values()) {
+            Map<Scope, Counter> byScope = new EnumMap<>(Scope.class);
+            for (Scope scope : Scope.values()) {
+                byScope.put(scope, Counter.builder("fitnessapp.rate.limit.rejections")
+                        .description("Requests turned away by the rate limiter")
+                        .tag("route", route.name().toLowerCase(Locale.ROOT))
+                        .tag("scope", scope.name().toLowerCase(Locale.ROOT))
+                        .register(registry));
+            }
+            rejections.put(route, byScope);
+        }
+        Gauge.builder("fitnessapp.rate.limit.buckets", buckets, Cache::estimatedSize)
+                .description("Clients with a live token bucket")
+                .register(registry);
+    }
+
+    private static Map<Scope, Limit> limits(Limit perIp, Limit perUser) {
+        Map<Scope, Limit> byScope = new EnumMap<>(Scope.class);
+        byScope.put(Scope.IP, perIp);
+        byScope.put(Scope.USER, perUser);
+        return byScope;
+    }
+
+    // Take a token for one request of a client: 0 if allowed, else milliseconds until a token is available
+    public long tryAcquire(Route route, Scope scope, String client) {
+        return tryAcquire(route, scope, client, System.nanoTime());
+    }
+
+    long tryAcquire(Route route, Scope scope, String client, long nowNanos) {
+        Limit limit = limits.get(route).get(scope);
+        if (!enabled || client == null || !limit.enabled()) {
+            return 0;
+        }
+        AtomicReference<State> bucket = buckets.get(new Key(route, scope, client),
+                key -> new AtomicReference<>(new State(limit.capacity(), nowNanos)));
+
+        while (true) {
+            State current = bucket.get();
+            long elapsed = Math.max(0, nowNanos - current.updatedAt());
+            double tokens = Math.min(limit.capacity(), current.tokens() + elapsed * limit.tokensPerNano());
+            if (tokens < 1) {
+                rejections.get(route).get(scope).increment();
+                return Math.max(1, (long) Math.ceil((1 - tokens) / limit.tokensPerNano() / 1_000_000));
+            }
+            // Lost the race: another request changed the bucket, so recompute from its new state
+            if (bucket.compareAndSet(current, new State(tokens - 1, Math.max(nowNanos, current.updatedAt())))) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Workout;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// All by myself
+// Service class
+// Running totals of the workout sessions in progress. /session/start issues a session id; every set
+// logged with that id adds to its sets, volume, reps and PR count once the set's transaction commits,
+// and /session stores those totals instead of the client's. Sessions idle for longer than the
+// timeout are forgotten (their sets are still in the workout table).
+@Service
+public class SessionAccumulator {
+
+    private final Cache<String, Running> sessions;
+
+    // Totals of one session so far
+    public record Totals(String username, LocalDateTime startedAt, int sets, double volume, int reps, int prs) {}
+
+    private static final class Running {
+        final String username;
+        final LocalDateTime startedAt;
+        final AtomicInteger sets = new AtomicInteger();
+        final DoubleAdder volume = new DoubleAdder();
+        final AtomicInteger reps = new AtomicInteger();
+        final AtomicInteger prs = new AtomicInteger();
+
+        Running(String username, LocalDateTime startedAt) {
+            this.username = username;
+            this.startedAt = startedAt;
+        }
+    }
+
+    public SessionAccumulator(@Value("${fitnessapp.sessions.idle-timeout-minutes:720}") long idleTimeoutMinutes,
+                              @Value("${fitnessapp.sessions.max-active:100000}") long maxActive,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxActive)
+                .expireAfterAccess(Duration.ofMinutes(idleTimeoutMinutes))
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, sessions, "sessions"));
+    }
+
+    // Open a session for a user; returns its id
+    public String start(String username, LocalDateTime startedAt) {
+        String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, new Running(username, startedAt));
+        return sessionId;
+    }
+
+    // Whether a session id is open and belongs to this user; sets with any other id are rejected up front
+    public boolean isOpen(String sessionId, String username) {
+        return find(sessionId, username) != null;
+    }
+
+    // Add saved sets to a session after the current transaction commits.
+    // Ids that were not open (or expired meanwhile) and sessions of another user are ignored.
+    public void record(String sessionId, String username, List<Workout> workouts) {
+        if (sessionId == null || workouts.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            Running running = find(sessionId, username);
+            if (running == null) {
+                return;
+            }
+            for (Workout workout : workouts) {
+                running.sets.incrementAndGet();
+                running.volume.add(workout.getWeight() * workout.getReps());
+                running.reps.addAndGet(workout.getReps());
+                if (workout.isPersonalRecord()) {
+                    running.prs.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    // Current totals of an open session of this user, or null
+    public Totals totals(String sessionId, String username) {
+        Running running = find(sessionId, username);
+        if (running == null) {
+            return null;
+        }
+        return new Totals(running.username, running.startedAt, running.sets.get(), running.volume.sum(),
+                running.reps.get(), running.prs.get());
+    }
+
+    // Close a session once its totals are stored; later sets with its id are not counted
+    public void end(String sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    private Running find(String sessionId, String username) {
+        if (sessionId == null) {
+            return null;
+        }
+        Running running = sessions.getIfPresent(sessionId);
+        return running != null && running.username.equals(username) ? running : null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fitnessapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// All by myself
+// Space-Saving heavy hitters summary (Metwally et al.) over long keys with at most `capacity` counters.
+// A key that is tracked is counted exactly from then on; a new key arriving when all counters are taken
+// replaces the key with the smallest count and inherits that count as its error. Guarantees, with N the
+// total of all offered counts:
+//   - every estimate is an overestimate by at most its error, and every error is at most N / capacity;
+//   - any key whose true count exceeds N / capacity is tracked;
+//   - with no more distinct keys than counters the counts are exact.
+// Counters live in plain arrays and the minimum is found by a linear scan, which for the few dozen
+// counters used here is faster than keeping a heap. Not thread-safe: ExerciseLeaderboard locks around it.
+final class SpaceSaving {
+
+    // A tracked key: count is an upper bound, count - error a lower bound of the true count
+    record Counter(long key, long count, long error) {}
+
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+    private long total;
+
+    SpaceSaving(int capacity) {
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    void offer(long key, long count) {
+        total += count;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                counts[i] += count;
+                return;
+            }
+        }
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            errors[size] = 0;
+            size++;
+            return;
+        }
+        int min = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[min]) {
+                min = i;
+            }
+        }
+        keys[min] = key;
+        errors[min] = counts[min];
+        counts[min] += count;
+    }
+
+    // Sum of every offered count
+    long total() {
+        return total;
+    }
+
+    // Upper bound on the error of any estimate (0 while no key was ever evicted)
+    long maxError() {
+        if (size < keys.length) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, counts[i]);
+        }
+        return min;
+    }
+
+    // Estimated count of a key: its counter, or 0 if untracked (then its true count is at most maxError())
+    long estimate(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return counts[i];
+            }
+        }
+        return 0;
+    }
+
+    List<Counter> counters() {
+        List<Counter> counters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counters.add(new Counter(keys[i], counts[i], errors[i]));
+        }
+        return counters;
+    }
+}
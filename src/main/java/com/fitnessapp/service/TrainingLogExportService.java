@@ -0,0 +1,89 @@
+package com.fitnessapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.model.WorkoutSession;
+import com.fitnessapp.repository.WorkoutRepository;
+import com.fitnessapp.repository.WorkoutSessionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// All by myself
+// Service class
+// Streams a user's full training log as NDJSON (one JSON object per line).
+// Rows come from forward-only cursors and are detached as soon as they are written,
+// so memory use does not depend on how long the history is.
+@Service
+public class TrainingLogExportService {
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private WorkoutSessionRepository workoutSessionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectWriter lineWriter;
+
+    // Export line shapes
+    record WorkoutLine(String type, Long id, Long exerciseId, String exerciseName, String category,
+                       double weight, int reps, LocalDateTime timestamp, boolean personalRecord,
+                       int restSeconds, Integer duration) {}
+
+    record SessionLine(String type, Long id, Integer durationSeconds, String durationText,
+                       Integer totalSets, Double totalVolume, Integer totalReps, Integer prCount,
+                       LocalDateTime startTime, LocalDateTime endTime, LocalDateTime createdAt) {}
+
+    public TrainingLogExportService(ObjectMapper objectMapper) {
+        this.lineWriter = objectMapper.writer();
+    }
+
+    // Write all workouts, then all sessions, of one user; returns the number of lines written
+    @Transactional(readOnly = true)
+    public long export(String username, OutputStream out) throws IOException {
+        long lines = 0;
+
+        try (Stream<Workout> workouts = workoutRepository.streamByUsername(username)) {
+            Iterator<Workout> it = workouts.iterator();
+            while (it.hasNext()) {
+                Workout w = it.next();
+                writeLine(out, new WorkoutLine("workout", w.getId(), w.getExercise().getId(), w.getExercise().getName(),
+                        w.getExercise().getCategory(), w.getWeight(), w.getReps(), w.getTimestamp(),
+                        w.isPersonalRecord(), w.getRestSeconds(), w.getDuration()));
+                entityManager.detach(w);
+                lines++;
+            }
+        }
+
+        try (Stream<WorkoutSession> sessions = workoutSessionRepository.streamByUsername(username)) {
+            Iterator<WorkoutSession> it = sessions.iterator();
+            while (it.hasNext()) {
+                WorkoutSession s = it.next();
+                writeLine(out, new SessionLine("session", s.getId(), s.getDurationSeconds(), s.getDurationText(),
+                        s.getTotalSets(), s.getTotalVolume(), s.getTotalReps(), s.getPrCount(),
+                        s.getStartTime(), s.getEndTime(), s.getCreatedAt()));
+                entityManager.detach(s);
+                lines++;
+            }
+        }
+
+        out.flush();
+        return lines;
+    }
+
+    private void writeLine(OutputStream out, Object line) throws IOException {
+        out.write(lineWriter.writeValueAsBytes(line));
+        out.write('\n');
+    }
+}
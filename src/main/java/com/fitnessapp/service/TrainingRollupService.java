@@ -0,0 +1,233 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.DailyExerciseRollup;
+import com.fitnessapp.model.RollupTotals;
+import com.fitnessapp.model.TrainingSeries;
+import com.fitnessapp.model.WeeklyTrainingRollup;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.repository.DailyExerciseRollupRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WeeklyTrainingRollupRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// All by myself
+// Service class
+// Maintains the training rollups (per user, exercise and day; per user and ISO week) so the history
+// charts read one short indexed range instead of aggregating the workout table on every view.
+// Rollups are updated in the same transaction as the workout insert and can be rebuilt from scratch.
+@Service
+public class TrainingRollupService {
+
+    @Autowired
+    private DailyExerciseRollupRepository dailyRepository;
+
+    @Autowired
+    private WeeklyTrainingRollupRepository weeklyRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${fitnessapp.rollups.max-days:366}")
+    private int maxDays;
+
+    @Value("${fitnessapp.rollups.max-weeks:260}")
+    private int maxWeeks;
+
+    // Rows written by a rebuild
+    public record Rebuilt(long dailyRows, long weeklyRows) {}
+
+    private record DayKey(Long exerciseId, LocalDate day) {}
+
+    // Add saved sets of one user to the rollups; must run in the same transaction as the Workout insert,
+    // after UserRepository.lockForWrite on that user so two first sets of a day cannot both insert its row
+    @Transactional
+    public void record(String username, List<Workout> workouts) {
+        Map<DayKey, RollupTotals> days = new LinkedHashMap<>();
+        Map<LocalDate, RollupTotals> weeks = new LinkedHashMap<>();
+        for (Workout workout : workouts) {
+            LocalDate day = workout.getTimestamp().toLocalDate();
+            days.merge(new DayKey(workout.getExercise().getId(), day),
+                    RollupTotals.empty(day).add(workout.getWeight(), workout.getReps()), TrainingRollupService::sum);
+            LocalDate week = weekStart(day);
+            weeks.merge(week, RollupTotals.empty(week).add(workout.getWeight(), workout.getReps()), TrainingRollupService::sum);
+        }
+
+        for (Map.Entry<DayKey, RollupTotals> entry : days.entrySet()) {
+            DayKey key = entry.getKey();
+            RollupTotals t = entry.getValue();
+            if (dailyRepository.add(username, key.exerciseId(), key.day(), t.sets(), t.reps(), t.volume(), t.maxWeight()) == 0) {
+                dailyRepository.save(new DailyExerciseRollup(username, key.exerciseId(), key.day(), t));
+            }
+        }
+        for (RollupTotals t : weeks.values()) {
+            if (weeklyRepository.add(username, t.period(), t.sets(), t.reps(), t.volume(), t.maxWeight()) == 0) {
+                weeklyRepository.save(new WeeklyTrainingRollup(username, t.period(), t));
+            }
+        }
+    }
+
+    // One entry per day from..to (inclusive), all exercises or just one
+    @Transactional(readOnly = true)
+    public TrainingSeries dailySeries(String username, Long exerciseId, LocalDate from, LocalDate to) {
+        checkRange(from, to, ChronoUnit.DAYS.between(from, to) + 1, maxDays, "days");
+        List<RollupTotals> rows = exerciseId != null
+                ? dailyRepository.findDailyByExercise(username, exerciseId, from, to)
+                : dailyRepository.findDailyTotals(username, from, to);
+        return series("day", from, to, rows, 1, LocalDate::toString);
+    }
+
+    // One entry per ISO week touching from..to, labelled like 2024-W09
+    @Transactional(readOnly = true)
+    public TrainingSeries weeklySeries(String username, LocalDate from, LocalDate to) {
+        LocalDate firstWeek = weekStart(from);
+        LocalDate lastWeek = weekStart(to);
+        checkRange(from, to, ChronoUnit.WEEKS.between(firstWeek, lastWeek) + 1, maxWeeks, "weeks");
+        List<RollupTotals> rows = weeklyRepository.findWeeks(username, firstWeek, lastWeek);
+        return series("week", firstWeek, lastWeek, rows, 7, TrainingRollupService::weekLabel);
+    }
+
+    // Recompute both rollups from the workout table. Daily totals are aggregated by the database and
+    // streamed grouped by user; each user's weeks are summed from their days and written when the
+    // next user starts, so memory holds one user's weeks and one flush worth of entities at a time.
+    // Every user stays locked until the end, so no set is logged between the delete and the reinsert.
+    @Transactional
+    public Rebuilt rebuild() {
+        userRepository.lockAllForWrite();
+        dailyRepository.deleteAllInBatch();
+        weeklyRepository.deleteAllInBatch();
+
+        long dailyRows = 0;
+        long weeklyRows = 0;
+        String currentUser = null;
+        Map<LocalDate, RollupTotals> weeks = new HashMap<>();
+        List<DailyExerciseRollup> pending = new ArrayList<>();
+
+        try (Stream<Object[]> rows = workoutRepository.streamDailyTotals()) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                String username = (String) row[0];
+                if (!username.equals(currentUser)) {
+                    weeklyRows += saveWeeks(currentUser, weeks);
+                    currentUser = username;
+                }
+                LocalDate day = (LocalDate) row[2];
+                RollupTotals totals = new RollupTotals(day, ((Number) row[3]).longValue(), ((Number) row[4]).longValue(),
+                        ((Number) row[5]).doubleValue(), ((Number) row[6]).doubleValue());
+                pending.add(new DailyExerciseRollup(username, (Long) row[1], day, totals));
+                LocalDate week = weekStart(day);
+                weeks.merge(week, new RollupTotals(week, totals.sets(), totals.reps(), totals.volume(), totals.maxWeight()),
+                        TrainingRollupService::sum);
+
+                if (pending.size() >= 500) {
+                    dailyRows += saveDays(pending);
+                }
+            }
+        }
+        dailyRows += saveDays(pending);
+        weeklyRows += saveWeeks(currentUser, weeks);
+        return new Rebuilt(dailyRows, weeklyRows);
+    }
+
+    private int saveDays(List<DailyExerciseRollup> pending) {
+        int saved = pending.size();
+        dailyRepository.saveAll(pending);
+        pending.clear();
+        flushAndClear();
+        return saved;
+    }
+
+    private int saveWeeks(String username, Map<LocalDate, RollupTotals> weeks) {
+        if (username == null || weeks.isEmpty()) {
+            return 0;
+        }
+        List<WeeklyTrainingRollup> rows = new ArrayList<>(weeks.size());
+        for (RollupTotals t : weeks.values()) {
+            rows.add(new WeeklyTrainingRollup(username, t.period(), t));
+        }
+        weeklyRepository.saveAll(rows);
+        weeks.clear();
+        flushAndClear();
+        return rows.size();
+    }
+
+    // Write queued inserts and drop them from the persistence context
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void checkRange(LocalDate from, LocalDate to, long periods, int max, String unit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (periods > max) {
+            throw new IllegalArgumentException("Range too long: at most " + max + " " + unit);
+        }
+    }
+
+    // Spread the stored periods over every step from..to, zeros where nothing was logged
+    private TrainingSeries series(String granularity, LocalDate from, LocalDate to, List<RollupTotals> rows, int stepDays,
+                                  Function<LocalDate, String> label) {
+        int size = (int) (ChronoUnit.DAYS.between(from, to) / stepDays) + 1;
+        List<String> labels = new ArrayList<>(size);
+        List<Long> sets = new ArrayList<>(size);
+        List<Long> reps = new ArrayList<>(size);
+        List<Double> volume = new ArrayList<>(size);
+        List<Double> maxWeight = new ArrayList<>(size);
+
+        Iterator<RollupTotals> it = rows.iterator();
+        RollupTotals next = it.hasNext() ? it.next() : null;
+        for (LocalDate period = from; !period.isAfter(to); period = period.plusDays(stepDays)) {
+            RollupTotals t = RollupTotals.empty(period);
+            if (next != null && next.period().equals(period)) {
+                t = next;
+                next = it.hasNext() ? it.next() : null;
+            }
+            labels.add(label.apply(period));
+            sets.add(t.sets());
+            reps.add(t.reps());
+            volume.add(t.volume());
+            maxWeight.add(t.maxWeight());
+        }
+        return new TrainingSeries(granularity, from, to, labels, sets, reps, volume, maxWeight);
+    }
+
+    private static RollupTotals sum(RollupTotals a, RollupTotals b) {
+        return new RollupTotals(a.period(), a.sets() + b.sets(), a.reps() + b.reps(), a.volume() + b.volume(),
+                Math.max(a.maxWeight(), b.maxWeight()));
+    }
+
+    static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    static String weekLabel(LocalDate weekStart) {
+        return String.format("%d-W%02d", weekStart.get(IsoFields.WEEK_BASED_YEAR), weekStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+}
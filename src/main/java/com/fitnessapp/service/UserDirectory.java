@@ -0,0 +1,78 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+// All by myself
+// Service class
+// Shared username -> user cache. Holds password-less profile snapshots, bounded by size and TTL.
+// Entries are dropped whenever a User row is written (see UserDirectoryListener).
+// Hit/miss/eviction counts are published as the "users" cache metrics.
+@Service
+public class UserDirectory {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final Cache<String, UserSnapshot> users;
+
+    public UserDirectory(@Value("${fitnessapp.user-cache.max-size:10000}") long maxSize,
+                         @Value("${fitnessapp.user-cache.ttl-seconds:600}") long ttlSeconds,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, users, "users"));
+    }
+
+    // Profile snapshot for a username, or null if no such user (misses are not cached)
+    public UserSnapshot find(String username) {
+        if (username == null) {
+            return null;
+        }
+        return users.get(username, name -> {
+            User user = userRepository.findByUsername(name);
+            return user == null ? null : UserSnapshot.of(user);
+        });
+    }
+
+    // Reference to the User row for use as an association target; no SELECT is issued
+    public User getReference(UserSnapshot user) {
+        return entityManager.getReference(User.class, user.id());
+    }
+
+    // Drop a cached entry now and again once the current transaction completes
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        users.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    users.invalidate(username);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// All by myself
+// JPA entity listener
+// Drops the cached user directory entry whenever a User row is registered, updated or removed
+public class UserDirectoryListener {
+
+    @Autowired
+    private ObjectProvider<UserDirectory> userDirectory; // looked up lazily to avoid a cycle with the EntityManagerFactory
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void userChanged(User user) {
+        UserDirectory directory = userDirectory.getIfAvailable();
+        if (directory != null) {
+            directory.invalidate(user.getUsername());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.JournaledSet;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// All by myself
+// Append-only journal of accepted sets in a fixed-size memory-mapped file. An append is a few puts into
+// the mapping: the bytes are in the OS page cache when it returns, so they survive a crash of the JVM
+// (with force = true they are also flushed to disk, which survives power loss but costs an fsync per set).
+//
+// Record: int length | long sequence | long exerciseId | double weight | int reps | int restSeconds |
+//         long loggedAt epoch second | int loggedAt nano | short username length | username UTF-8 |
+//         short session id length | session id UTF-8 (empty: none) | int CRC32
+// length counts the bytes after itself, up to but not including the CRC. A zero length ends the journal;
+// recovery also stops at a bad CRC (torn write) or a sequence that does not follow the previous one.
+// Not thread-safe: WorkoutWriteBehind serializes access.
+class WorkoutJournalFile implements AutoCloseable {
+
+    private static final int FIXED_BYTES = 8 + 8 + 8 + 4 + 4 + 8 + 4 + 2 + 2;
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean force;
+    private final CRC32 crc = new CRC32();
+
+    private long lastSequence;
+
+    WorkoutJournalFile(Path path, int capacityBytes, boolean force) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        this.force = force;
+    }
+
+    // Scan the journal from the start and position the writer after the last intact record.
+    // Returns the sets with a sequence above appliedThrough, oldest first; sequences continue after
+    // the highest of the two.
+    List<JournaledSet> recover(long appliedThrough) {
+        List<JournaledSet> pending = new ArrayList<>();
+        int position = 0;
+        long previous = -1;
+        while (true) {
+            JournaledSet set = read(position, previous);
+            if (set == null) {
+                break;
+            }
+            if (set.sequence() > appliedThrough) {
+                pending.add(set);
+            }
+            previous = set.sequence();
+            position += 4 + buffer.getInt(position) + 4;
+        }
+        buffer.position(position);
+        lastSequence = Math.max(Math.max(previous, 0), appliedThrough);
+        return pending;
+    }
+
+    // Append one set; returns null when the journal has no room left for it
+    JournaledSet append(String username, long exerciseId, double weight, int reps, int restSeconds, LocalDateTime loggedAt,
+                        String sessionId) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        byte[] session = sessionId == null ? new byte[0] : sessionId.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_STRING_BYTES || session.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Username or session id too long for the journal");
+        }
+        int length = FIXED_BYTES + name.length + session.length;
+        int start = buffer.position();
+        if (start + 4 + length + 4 > buffer.capacity()) {
+            return null;
+        }
+
+        JournaledSet set = new JournaledSet(lastSequence + 1, username, exerciseId, weight, reps, restSeconds, loggedAt,
+                session.length == 0 ? null : sessionId);
+        buffer.putInt(length)
+              .putLong(set.sequence())
+              .putLong(exerciseId)
+              .putDouble(weight)
+              .putInt(reps)
+              .putInt(restSeconds)
+              .putLong(loggedAt.toEpochSecond(ZoneOffset.UTC))
+              .putInt(loggedAt.getNano())
+              .putShort((short) name.length)
+              .put(name)
+              .putShort((short) session.length)
+              .put(session);
+        buffer.putInt(checksum(start + 4, length));
+        if (buffer.remaining() >= 4) {
+            buffer.putInt(buffer.position(), 0); // end marker, overwritten by the next append
+        }
+        if (force) {
+            buffer.force(start, buffer.position() - start);
+        }
+        lastSequence = set.sequence();
+        return set;
+    }
+
+    // Start over from the beginning of the file; only safe once every appended set has been applied.
+    // Sequences keep counting up.
+    void reset() {
+        buffer.putInt(0, 0);
+        if (force) {
+            buffer.force(0, 4);
+        }
+        buffer.position(0);
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    int bytesUsed() {
+        return buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // Record at position, or null if there is none (end marker, torn write, stale data from before a reset)
+    private JournaledSet read(int position, long previousSequence) {
+        if (position + 4 > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length < FIXED_BYTES || length > FIXED_BYTES + 2 * MAX_STRING_BYTES
+                || position + 4 + length + 4 > buffer.capacity()) {
+            return null;
+        }
+        if (buffer.getInt(position + 4 + length) != checksum(position + 4, length)) {
+            return null;
+        }
+        int p = position + 4;
+        long sequence = buffer.getLong(p);
+        if (previousSequence >= 0 && sequence != previousSequence + 1) {
+            return null;
+        }
+        long exerciseId = buffer.getLong(p + 8);
+        double weight = buffer.getDouble(p + 16);
+        int reps = buffer.getInt(p + 24);
+        int restSeconds = buffer.getInt(p + 28);
+        LocalDateTime loggedAt = LocalDateTime.ofEpochSecond(buffer.getLong(p + 32), buffer.getInt(p + 40), ZoneOffset.UTC);
+        byte[] name = new byte[buffer.getShort(p + 44)];
+        buffer.get(p + 46, name);
+        byte[] session = new byte[buffer.getShort(p + 46 + name.length)];
+        buffer.get(p + 48 + name.length, session);
+        return new JournaledSet(sequence, new String(name, StandardCharsets.UTF_8), exerciseId, weight, reps, restSeconds, loggedAt,
+                session.length == 0 ? null : new String(session, StandardCharsets.UTF_8));
+    }
+
+    private int checksum(int offset, int length) {
+        crc.reset();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,230 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.JournaledSet;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.model.WorkoutJournalCheckpoint;
+import com.fitnessapp.model.WorkoutSetRequest;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutJournalCheckpointRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+// All by myself
+// Service class
+// Writes logged sets and keeps the derived indexes (best lifts, popularity counters, training rollups,
+// e1RM progression) in the same transaction. Each transaction first locks the user's row, so a user's
+// concurrent logs take turns on their derived rows instead of racing to insert the first one.
+@Service
+public class WorkoutLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkoutLogService.class);
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private WorkoutJournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExerciseCatalog exerciseCatalog;
+
+    @Autowired
+    private PersonalRecordService personalRecordService;
+
+    @Autowired
+    private ExercisePopularityService exercisePopularityService;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private ActivityMetrics activityMetrics;
+
+    @Autowired
+    private SessionAccumulator sessionAccumulator;
+
+    @Autowired
+    private TrainingRollupService trainingRollupService;
+
+    @Autowired
+    private ProgressionService progressionService;
+
+    // Log one set: detect PR against the best lift index and insert the workout row
+    @Transactional
+    public Workout logSet(UserSnapshot user, Exercise exercise, double weight, int reps, int restSeconds, LocalDateTime timestamp) {
+        return logSet(user, exercise, weight, reps, restSeconds, timestamp, null);
+    }
+
+    // Same, counting the set towards an open workout session (null: none)
+    @Transactional
+    public Workout logSet(UserSnapshot user, Exercise exercise, double weight, int reps, int restSeconds, LocalDateTime timestamp,
+                          String sessionId) {
+        userRepository.lockForWrite(user.id());
+        boolean isPR = personalRecordService.recordLift(user.username(), exercise.getId(), weight);
+        exercisePopularityService.recordUse(user.username(), exercise, 1);
+        activityMetrics.personalRecords(isPR ? 1 : 0);
+        Workout saved = workoutRepository.save(newWorkout(user, exercise, weight, reps, restSeconds, timestamp, isPR));
+        trainingRollupService.record(user.username(), List.of(saved));
+        progressionService.record(user.username(), List.of(saved));
+        sessionAccumulator.record(sessionId, user.username(), List.of(saved));
+        return saved;
+    }
+
+    // Log several sets of one user in order. PR flags are computed within the batch
+    // (a set only counts as a PR if it beats everything before it, including earlier sets
+    // in the same batch), the index is raised once per exercise, and all rows go out in one saveAll.
+    @Transactional
+    public List<Workout> logSets(UserSnapshot user, List<WorkoutSetRequest> sets, Map<Long, Exercise> exercises, LocalDateTime now) {
+        return logSets(user, sets, exercises, now, null);
+    }
+
+    @Transactional
+    public List<Workout> logSets(UserSnapshot user, List<WorkoutSetRequest> sets, Map<Long, Exercise> exercises, LocalDateTime now,
+                                 String sessionId) {
+        userRepository.lockForWrite(user.id());
+        List<Workout> workouts = new ArrayList<>(sets.size());
+        for (WorkoutSetRequest set : sets) {
+            LocalDateTime timestamp = set.getTimestamp() > 0
+                    ? LocalDateTime.ofEpochSecond(set.getTimestamp() / 1000, 0, ZoneOffset.UTC)
+                    : now;
+            workouts.add(newWorkout(user, exercises.get(set.getExerciseId()), set.getWeight(), set.getReps(),
+                    set.getRestSeconds(), timestamp, false));
+        }
+        List<Workout> saved = saveInOrder(user.username(), workouts);
+        sessionAccumulator.record(sessionId, user.username(), saved);
+        return saved;
+    }
+
+    // Write a batch drained from the write-behind journal and move the checkpoint to its last sequence,
+    // all in one transaction. The batch is in sequence order; each user's sets keep that order, so
+    // PR flags come out as if the sets had been logged one by one. Sets whose user or exercise has
+    // been deleted since they were accepted are dropped.
+    @Transactional
+    public int logJournaled(List<JournaledSet> batch) {
+        Map<String, List<JournaledSet>> byUser = new LinkedHashMap<>();
+        for (JournaledSet set : batch) {
+            byUser.computeIfAbsent(set.username(), u -> new ArrayList<>()).add(set);
+        }
+
+        Map<String, UserSnapshot> users = new TreeMap<>();
+        for (String username : byUser.keySet()) {
+            UserSnapshot user = userDirectory.find(username);
+            if (user == null) {
+                log.warn("Dropping {} journaled sets of unknown user {}", byUser.get(username).size(), username);
+                continue;
+            }
+            users.put(username, user);
+        }
+        // In name order, so two transactions locking several users cannot wait on each other
+        for (UserSnapshot user : users.values()) {
+            userRepository.lockForWrite(user.id());
+        }
+
+        int saved = 0;
+        for (Map.Entry<String, List<JournaledSet>> entry : byUser.entrySet()) {
+            UserSnapshot user = users.get(entry.getKey());
+            if (user == null) {
+                continue;
+            }
+            List<Workout> workouts = new ArrayList<>(entry.getValue().size());
+            Map<Workout, String> sessions = new IdentityHashMap<>();
+            for (JournaledSet set : entry.getValue()) {
+                Optional<Exercise> exercise = exerciseCatalog.findById(set.exerciseId());
+                if (exercise.isEmpty()) {
+                    log.warn("Dropping journaled set {}: exercise {} not found", set.sequence(), set.exerciseId());
+                    continue;
+                }
+                Workout workout = newWorkout(user, exercise.get(), set.weight(), set.reps(), set.restSeconds(), set.loggedAt(), false);
+                workouts.add(workout);
+                if (set.sessionId() != null) {
+                    sessions.put(workout, set.sessionId());
+                }
+            }
+            saved += saveInOrder(user.username(), workouts).size();
+            sessions.forEach((workout, sessionId) -> sessionAccumulator.record(sessionId, user.username(), List.of(workout)));
+        }
+
+        checkpointRepository.advance(WorkoutJournalCheckpoint.ID, batch.get(batch.size() - 1).sequence(), LocalDateTime.now());
+        return saved;
+    }
+
+    // Move the checkpoint past a journaled set that could not be written and went to the dead-letter file
+    @Transactional
+    public void skipJournaled(long sequence) {
+        checkpointRepository.advance(WorkoutJournalCheckpoint.ID, sequence, LocalDateTime.now());
+    }
+
+    // Flag PRs for one user's workouts in list order, update the best lift index and popularity counters, insert
+    private List<Workout> saveInOrder(String username, List<Workout> workouts) {
+        Map<Long, Double> bests = new HashMap<>();
+        Set<Long> raised = new HashSet<>();
+        Map<Long, Exercise> exercises = new HashMap<>();
+        Map<Long, Long> setsPerExercise = new HashMap<>();
+        int prs = 0;
+
+        for (Workout workout : workouts) {
+            Long exerciseId = workout.getExercise().getId();
+            Double best = bests.containsKey(exerciseId) ? bests.get(exerciseId) : personalRecordService.currentBest(username, exerciseId);
+
+            boolean isPR = best == null || workout.getWeight() > best;
+            if (isPR) {
+                best = workout.getWeight();
+                raised.add(exerciseId);
+                prs++;
+            }
+            workout.setPersonalRecord(isPR);
+            bests.put(exerciseId, best);
+            exercises.putIfAbsent(exerciseId, workout.getExercise());
+            setsPerExercise.merge(exerciseId, 1L, Long::sum);
+        }
+
+        for (Long exerciseId : raised) {
+            personalRecordService.recordLift(username, exerciseId, bests.get(exerciseId));
+        }
+        for (Map.Entry<Long, Long> entry : setsPerExercise.entrySet()) {
+            exercisePopularityService.recordUse(username, exercises.get(entry.getKey()), entry.getValue());
+        }
+        activityMetrics.personalRecords(prs);
+        List<Workout> saved = workoutRepository.saveAll(workouts);
+        trainingRollupService.record(username, saved);
+        progressionService.record(username, saved);
+        return saved;
+    }
+
+    private Workout newWorkout(UserSnapshot user, Exercise exercise, double weight, int reps, int restSeconds,
+                               LocalDateTime timestamp, boolean isPR) {
+        Workout workout = new Workout();
+        workout.setUsername(user.username());
+        workout.setUser(userDirectory.getReference(user)); // no SELECT for the user row
+        workout.setExercise(exercise);
+        workout.setWeight(weight);
+        workout.setReps(reps);
+        workout.setTimestamp(timestamp);
+        workout.setPersonalRecord(isPR);
+        workout.setRestSeconds(restSeconds);
+        workout.setDuration(0); // Set default workout duration to 0 seconds
+        return workout;
+    }
+}
@@ -0,0 +1,264 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.JournaledSet;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.model.WorkoutJournalCheckpoint;
+import com.fitnessapp.model.WorkoutJournalStatus;
+import com.fitnessapp.repository.WorkoutJournalCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// All by myself
+// Service class
+// Optional write-behind mode for POST /api/workouts/log (fitnessapp.workouts.write-behind.enabled).
+// A validated set is appended to the local journal and acknowledged with its sequence number; a
+// background drain writes queued sets to the database in batches, in sequence order, through
+// WorkoutLogService.logJournaled (which advances the checkpoint in the same transaction).
+// On startup every journaled set past the checkpoint is queued again, so nothing acknowledged is lost
+// and nothing is written twice. History and PR flags catch up within one drain interval.
+@Service
+@ConditionalOnProperty(name = "fitnessapp.workouts.write-behind.enabled", havingValue = "true")
+public class WorkoutWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkoutWriteBehind.class);
+
+    @Autowired
+    private WorkoutLogService workoutLogService;
+
+    @Autowired
+    private WorkoutJournalCheckpointRepository checkpointRepository;
+
+    @Value("${fitnessapp.workouts.write-behind.journal-path:data/workout-journal.bin}")
+    private String journalPath;
+
+    @Value("${fitnessapp.workouts.write-behind.journal-size-mb:64}")
+    private int journalSizeMb;
+
+    @Value("${fitnessapp.workouts.write-behind.fsync:false}")
+    private boolean fsync; // true: force every append to disk (survives power loss, not just a JVM crash)
+
+    @Value("${fitnessapp.workouts.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${fitnessapp.workouts.write-behind.max-attempts:5}")
+    private int maxAttempts; // failed runs of the same batch before its sets are written one by one
+
+    @Value("${fitnessapp.workouts.write-behind.dead-letter-path:data/workout-dead-letter.log}")
+    private String deadLetterPath;
+
+    private WorkoutJournalFile journal;
+    private final Queue<JournaledSet> queue = new ConcurrentLinkedQueue<>(); // sequence order; appended under appendLock
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock drainLock = new ReentrantLock(); // one drain at a time, so batches stay in order
+    private volatile long appliedThrough;
+    private int failedAttempts; // of the batch at the head of the queue; guarded by drainLock
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    // Thrown when sets acknowledged earlier could not be written first
+    public static class Backlogged extends RuntimeException {
+        public Backlogged(String message) {
+            super(message);
+        }
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        appliedThrough = checkpointRepository.findById(WorkoutJournalCheckpoint.ID)
+                .orElseGet(() -> checkpointRepository.save(new WorkoutJournalCheckpoint(WorkoutJournalCheckpoint.ID, 0)))
+                .getAppliedThrough();
+        journal = new WorkoutJournalFile(Path.of(journalPath), journalSizeMb * 1024 * 1024, fsync);
+        List<JournaledSet> pending = journal.recover(appliedThrough);
+        queue.addAll(pending);
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} journaled sets after sequence {}", pending.size(), appliedThrough);
+        }
+    }
+
+    // Journal a validated set and queue it for the database; returns null when the journal is full
+    public JournaledSet append(UserSnapshot user, Exercise exercise, double weight, int reps, int restSeconds, String sessionId) {
+        appendLock.lock();
+        try {
+            JournaledSet set = journal.append(user.username(), exercise.getId(), weight, reps, restSeconds, LocalDateTime.now(), sessionId);
+            if (set != null) {
+                queue.offer(set);
+            }
+            return set;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Write everything queued so far; returns the number of sets taken off the queue.
+    // A failed batch stays queued and is retried on the next run; after max-attempts failed runs
+    // (not counting an unreachable database) its sets are written one by one and any set that still
+    // fails goes to the dead-letter file, so one bad set cannot hold up the journal forever.
+    @Scheduled(fixedDelayString = "${fitnessapp.workouts.write-behind.drain-interval-ms:200}")
+    public int drain() {
+        drainLock.lock();
+        try {
+            return drainQueued();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Write everything acknowledged so far, then run a synchronous write before any later drain can start,
+    // so it lands after those sets (e.g. /log/batch, whose PR flags depend on them). Throws Backlogged if
+    // the drain could not write them all.
+    public <T> T afterDrain(Supplier<T> write) {
+        drainLock.lock();
+        try {
+            long acknowledged = status().appendedThrough();
+            drainQueued();
+            if (appliedThrough < acknowledged) {
+                throw new Backlogged("Earlier sets are not written yet");
+            }
+            return write.get();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    public WorkoutJournalStatus status() {
+        appendLock.lock();
+        try {
+            return new WorkoutJournalStatus(journal.lastSequence(), appliedThrough, queue.size(), journal.bytesUsed(),
+                    deadLettered.get());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private int drainQueued() {
+        int drained = 0;
+        List<JournaledSet> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            Iterator<JournaledSet> it = queue.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                workoutLogService.logJournaled(batch);
+            } catch (RuntimeException e) {
+                if (isTransient(e) || ++failedAttempts < maxAttempts) {
+                    log.warn("Write-behind batch of {} sets failed, will retry: sequences {}..{}",
+                            batch.size(), batch.get(0).sequence(), batch.get(batch.size() - 1).sequence(), e);
+                    break;
+                }
+                log.error("Write-behind batch of {} sets failed {} times, writing its sets one by one: sequences {}..{}",
+                        batch.size(), failedAttempts, batch.get(0).sequence(), batch.get(batch.size() - 1).sequence(), e);
+                int written = drainOneByOne(batch);
+                drained += written;
+                if (written < batch.size()) {
+                    break;
+                }
+                failedAttempts = 0;
+                continue;
+            }
+            failedAttempts = 0;
+            appliedThrough = batch.get(batch.size() - 1).sequence();
+            for (int i = 0; i < batch.size(); i++) {
+                queue.poll();
+            }
+            drained += batch.size();
+        }
+        reclaimJournal();
+        return drained;
+    }
+
+    // Write a batch that keeps failing set by set. A set that fails on its own (and not because the database
+    // is unreachable) goes to the dead-letter file and the checkpoint moves past it. Returns the number of
+    // sets taken off the queue; stops early if anything else fails.
+    private int drainOneByOne(List<JournaledSet> batch) {
+        int done = 0;
+        for (JournaledSet set : batch) {
+            try {
+                workoutLogService.logJournaled(List.of(set));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Write-behind set {} failed, will retry", set.sequence(), e);
+                    return done;
+                }
+                try {
+                    deadLetter(set, e);
+                    workoutLogService.skipJournaled(set.sequence());
+                } catch (IOException | RuntimeException deadLetterFailed) {
+                    log.error("Could not set aside write-behind set {}, will retry", set.sequence(), deadLetterFailed);
+                    return done;
+                }
+            }
+            appliedThrough = set.sequence();
+            queue.poll();
+            done++;
+        }
+        return done;
+    }
+
+    // One line per set that could not be written: the set as journaled and why it failed. A set may be
+    // listed twice if moving the checkpoint past it failed the first time.
+    private void deadLetter(JournaledSet set, RuntimeException failure) throws IOException {
+        Path file = Path.of(deadLetterPath);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, set + " failure=" + failure + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        deadLettered.incrementAndGet();
+        log.error("Write-behind set {} moved to {}: {}", set.sequence(), deadLetterPath, set, failure);
+    }
+
+    // Failures that say nothing about the batch itself (database unreachable, lock timeout...): retried without limit
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    // Everything appended so far is in the database: start the file over so it never fills up in steady state
+    private void reclaimJournal() {
+        appendLock.lock();
+        try {
+            if (queue.isEmpty() && journal.bytesUsed() > 0) {
+                journal.reset();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        drain();
+        journal.close();
+    }
+}
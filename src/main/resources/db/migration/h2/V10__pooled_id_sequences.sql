@@ -0,0 +1,10 @@
+-- Pooled id sequences (allocationSize = 50) for the tables that predate them. Each one starts past the
+-- ids already present: with the pooled optimizer a value v hands out the block (v - 50, v], so the first
+-- value must be at least MAX(id) + 51.
+CREATE SEQUENCE exercise_seq START WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM exercise) INCREMENT BY 50;
+CREATE SEQUENCE user_seq START WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM "user") INCREMENT BY 50;
+CREATE SEQUENCE workout_seq START WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM workout) INCREMENT BY 50;
+CREATE SEQUENCE workout_session_seq START WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM workout_session) INCREMENT BY 50;
+CREATE SEQUENCE personal_record_seq START WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM personal_record) INCREMENT BY 50;
+CREATE SEQUENCE exercise_usage_count_seq START WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM exercise_usage_count) INCREMENT BY 50;
+CREATE SEQUENCE user_exercise_usage_count_seq START WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM user_exercise_usage_count) INCREMENT BY 50;
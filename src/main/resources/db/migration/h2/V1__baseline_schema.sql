@@ -0,0 +1,61 @@
+-- Baseline: the schema as Hibernate (ddl-auto: update) created it before migrations existed, with
+-- IDENTITY ids. Databases that already have these tables are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and start from V2, so nothing added after that release belongs here.
+-- H2 flavour, written for MODE=MySQL;DATABASE_TO_LOWER=TRUE (the test configuration): reserved
+-- words are quoted in lower case, everything else is folded to lower case.
+
+CREATE TABLE exercise (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name     VARCHAR(255),
+    category VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE "user" (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username      VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    email         VARCHAR(255),
+    nickname      VARCHAR(255),
+    height        DOUBLE PRECISION,
+    weight        DOUBLE PRECISION,
+    age           INT,
+    gender        VARCHAR(255),
+    created_at    TIMESTAMP(6),
+    last_login_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username)
+);
+
+CREATE TABLE workout (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    exercise_id     BIGINT,
+    user_id         BIGINT       NOT NULL,
+    username        VARCHAR(255) NOT NULL,
+    weight          DOUBLE PRECISION NOT NULL,
+    reps            INT          NOT NULL,
+    "timestamp"     TIMESTAMP(6),
+    personal_record BOOLEAN      NOT NULL,
+    rest_seconds    INT          NOT NULL,
+    duration        INT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_workout_exercise FOREIGN KEY (exercise_id) REFERENCES exercise (id),
+    CONSTRAINT fk_workout_user FOREIGN KEY (user_id) REFERENCES "user" (id)
+);
+
+CREATE TABLE workout_session (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id          BIGINT       NOT NULL,
+    username         VARCHAR(255) NOT NULL,
+    duration_seconds INT,
+    duration_text    VARCHAR(255),
+    total_sets       INT,
+    total_volume     DOUBLE PRECISION,
+    total_reps       INT,
+    pr_count         INT,
+    start_time       TIMESTAMP(6),
+    end_time         TIMESTAMP(6),
+    created_at       TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_workout_session_user FOREIGN KEY (user_id) REFERENCES "user" (id)
+);
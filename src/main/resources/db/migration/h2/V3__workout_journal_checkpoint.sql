@@ -0,0 +1,10 @@
+-- Write-behind logging (fitnessapp.workouts.write-behind.enabled): highest journal sequence
+-- already written to the workout table, advanced in the same transaction as the rows.
+CREATE TABLE workout_journal_checkpoint (
+    id              BIGINT NOT NULL,
+    applied_through BIGINT NOT NULL,
+    updated_at      TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+INSERT INTO workout_journal_checkpoint (id, applied_through) VALUES (1, 0);
@@ -0,0 +1,16 @@
+-- Responses of writes sent with an Idempotency-Key header, replayed on retry until expires_at
+CREATE TABLE idempotency_record (
+    id              BIGINT       NOT NULL,
+    idempotency_key VARCHAR(512) NOT NULL,
+    status          INT          NOT NULL,
+    content_type    VARCHAR(255),
+    body            CLOB,
+    created_at      TIMESTAMP(6),
+    expires_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_record_key UNIQUE (idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_record_expires ON idempotency_record (expires_at);
+
+CREATE SEQUENCE idempotency_record_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,30 @@
+-- Pre-aggregated training rollups behind the history charts (see TrainingRollupService)
+CREATE TABLE daily_exercise_rollup (
+    id           BIGINT           NOT NULL,
+    username     VARCHAR(255)     NOT NULL,
+    exercise_id  BIGINT           NOT NULL,
+    training_day DATE             NOT NULL,
+    set_count    BIGINT           NOT NULL,
+    total_reps   BIGINT           NOT NULL,
+    total_volume DOUBLE PRECISION NOT NULL,
+    max_weight   DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_daily_exercise_rollup UNIQUE (username, exercise_id, training_day)
+);
+
+CREATE INDEX idx_daily_exercise_rollup_user_day ON daily_exercise_rollup (username, training_day);
+
+CREATE TABLE weekly_training_rollup (
+    id           BIGINT           NOT NULL,
+    username     VARCHAR(255)     NOT NULL,
+    week_start   DATE             NOT NULL,
+    set_count    BIGINT           NOT NULL,
+    total_reps   BIGINT           NOT NULL,
+    total_volume DOUBLE PRECISION NOT NULL,
+    max_weight   DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_weekly_training_rollup UNIQUE (username, week_start)
+);
+
+CREATE SEQUENCE daily_exercise_rollup_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE weekly_training_rollup_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,16 @@
+-- Running e1RM progression state per (user, exercise) (see ProgressionService)
+CREATE TABLE exercise_progression (
+    id           BIGINT           NOT NULL,
+    username     VARCHAR(255)     NOT NULL,
+    exercise_id  BIGINT           NOT NULL,
+    formula      VARCHAR(16)      NOT NULL,
+    best_e1rm    DOUBLE PRECISION NOT NULL,
+    best_e1rm_on DATE,
+    sets_counted BIGINT           NOT NULL,
+    state        VARCHAR(1024)    NOT NULL,
+    updated_at   TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_exercise_progression_user_exercise UNIQUE (username, exercise_id)
+);
+
+CREATE SEQUENCE exercise_progression_seq START WITH 1 INCREMENT BY 50;
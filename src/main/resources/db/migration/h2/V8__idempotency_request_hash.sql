@@ -0,0 +1,2 @@
+-- Hash of the request a stored response belongs to, so a key reused for a different request is rejected
+ALTER TABLE idempotency_record ADD COLUMN request_hash VARCHAR(64);
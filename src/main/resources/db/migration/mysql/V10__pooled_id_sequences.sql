@@ -0,0 +1,18 @@
+-- Pooled id sequences (allocationSize = 50) for the tables that predate them. MySQL has no sequences, so
+-- Hibernate reads and bumps a one-row table per entity. Each one starts past the ids already present:
+-- with the pooled optimizer a value v hands out the block (v - 50, v], so next_val must be at least
+-- MAX(id) + 51. The id columns of V1 keep AUTO_INCREMENT; Hibernate always supplies the id now.
+CREATE TABLE exercise_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO exercise_seq SELECT COALESCE(MAX(id), 0) + 51 FROM exercise;
+CREATE TABLE user_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO user_seq SELECT COALESCE(MAX(id), 0) + 51 FROM `user`;
+CREATE TABLE workout_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO workout_seq SELECT COALESCE(MAX(id), 0) + 51 FROM workout;
+CREATE TABLE workout_session_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO workout_session_seq SELECT COALESCE(MAX(id), 0) + 51 FROM workout_session;
+CREATE TABLE personal_record_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO personal_record_seq SELECT COALESCE(MAX(id), 0) + 51 FROM personal_record;
+CREATE TABLE exercise_usage_count_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO exercise_usage_count_seq SELECT COALESCE(MAX(id), 0) + 51 FROM exercise_usage_count;
+CREATE TABLE user_exercise_usage_count_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO user_exercise_usage_count_seq SELECT COALESCE(MAX(id), 0) + 51 FROM user_exercise_usage_count;
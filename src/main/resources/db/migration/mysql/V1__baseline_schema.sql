@@ -0,0 +1,59 @@
+-- Baseline: the schema as Hibernate (ddl-auto: update) created it before migrations existed, with
+-- IDENTITY ids. Databases that already have these tables are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and start from V2, so nothing added after that release belongs here.
+
+CREATE TABLE exercise (
+    id       BIGINT NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255),
+    category VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE `user` (
+    id            BIGINT NOT NULL AUTO_INCREMENT,
+    username      VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    email         VARCHAR(255),
+    nickname      VARCHAR(255),
+    height        DOUBLE,
+    weight        DOUBLE,
+    age           INT,
+    gender        VARCHAR(255),
+    created_at    DATETIME(6),
+    last_login_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE workout (
+    id              BIGINT NOT NULL AUTO_INCREMENT,
+    exercise_id     BIGINT,
+    user_id         BIGINT       NOT NULL,
+    username        VARCHAR(255) NOT NULL,
+    weight          DOUBLE       NOT NULL,
+    reps            INT          NOT NULL,
+    timestamp       DATETIME(6),
+    personal_record BIT          NOT NULL,
+    rest_seconds    INT          NOT NULL,
+    duration        INT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_workout_exercise FOREIGN KEY (exercise_id) REFERENCES exercise (id),
+    CONSTRAINT fk_workout_user FOREIGN KEY (user_id) REFERENCES `user` (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE workout_session (
+    id               BIGINT NOT NULL AUTO_INCREMENT,
+    user_id          BIGINT       NOT NULL,
+    username         VARCHAR(255) NOT NULL,
+    duration_seconds INT,
+    duration_text    VARCHAR(255),
+    total_sets       INT,
+    total_volume     DOUBLE,
+    total_reps       INT,
+    pr_count         INT,
+    start_time       DATETIME(6),
+    end_time         DATETIME(6),
+    created_at       DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_workout_session_user FOREIGN KEY (user_id) REFERENCES `user` (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,16 @@
+-- Composite indexes for the repository predicates.
+
+-- Keyset-paged history per user, optionally per exercise; also covers workout.username and
+-- (username, timestamp) lookups
+CREATE INDEX idx_workout_username_ts_id ON workout (username, timestamp, id);
+CREATE INDEX idx_workout_username_exercise_ts_id ON workout (username, exercise_id, timestamp, id);
+
+-- History of one exercise, heaviest first; also the per-user best-weight rebuild
+CREATE INDEX idx_workout_username_exercise_weight ON workout (username, exercise_id, weight);
+
+-- Derived queries keyed by the user association (findByUser..., findByUserAndExercise...)
+CREATE INDEX idx_workout_user_exercise_weight ON workout (user_id, exercise_id, weight);
+CREATE INDEX idx_workout_user_ts ON workout (user_id, timestamp);
+
+-- Session export, oldest first
+CREATE INDEX idx_workout_session_username_created ON workout_session (username, created_at, id);
@@ -0,0 +1,17 @@
+-- Responses of writes sent with an Idempotency-Key header, replayed on retry until expires_at
+CREATE TABLE idempotency_record (
+    id              BIGINT       NOT NULL,
+    idempotency_key VARCHAR(512) NOT NULL,
+    status          INT          NOT NULL,
+    content_type    VARCHAR(255),
+    body            LONGTEXT,
+    created_at      DATETIME(6),
+    expires_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_record_key UNIQUE (idempotency_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_idempotency_record_expires ON idempotency_record (expires_at);
+
+CREATE TABLE idempotency_record_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO idempotency_record_seq VALUES (1);
@@ -0,0 +1,2 @@
+-- Sessions saved with a server-issued session id carry totals accumulated from the logged sets
+ALTER TABLE workout_session ADD COLUMN server_totals BIT NOT NULL DEFAULT 0;
@@ -0,0 +1,32 @@
+-- Pre-aggregated training rollups behind the history charts (see TrainingRollupService)
+CREATE TABLE daily_exercise_rollup (
+    id           BIGINT       NOT NULL,
+    username     VARCHAR(255) NOT NULL,
+    exercise_id  BIGINT       NOT NULL,
+    training_day DATE         NOT NULL,
+    set_count    BIGINT       NOT NULL,
+    total_reps   BIGINT       NOT NULL,
+    total_volume DOUBLE       NOT NULL,
+    max_weight   DOUBLE       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_daily_exercise_rollup UNIQUE (username, exercise_id, training_day)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_daily_exercise_rollup_user_day ON daily_exercise_rollup (username, training_day);
+
+CREATE TABLE weekly_training_rollup (
+    id           BIGINT       NOT NULL,
+    username     VARCHAR(255) NOT NULL,
+    week_start   DATE         NOT NULL,
+    set_count    BIGINT       NOT NULL,
+    total_reps   BIGINT       NOT NULL,
+    total_volume DOUBLE       NOT NULL,
+    max_weight   DOUBLE       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_weekly_training_rollup UNIQUE (username, week_start)
+) ENGINE = InnoDB;
+
+CREATE TABLE daily_exercise_rollup_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO daily_exercise_rollup_seq VALUES (1);
+CREATE TABLE weekly_training_rollup_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO weekly_training_rollup_seq VALUES (1);
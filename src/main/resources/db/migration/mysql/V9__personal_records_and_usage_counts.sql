@@ -0,0 +1,34 @@
+-- Best weight per (user, exercise) (see PersonalRecordService) and the global and per-user exercise
+-- popularity counters
+CREATE TABLE personal_record (
+    id          BIGINT       NOT NULL,
+    username    VARCHAR(255) NOT NULL,
+    exercise_id BIGINT       NOT NULL,
+    best_weight DOUBLE       NOT NULL,
+    updated_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_personal_record_user_exercise UNIQUE (username, exercise_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE exercise_usage_count (
+    id          BIGINT NOT NULL,
+    exercise_id BIGINT NOT NULL,
+    category    VARCHAR(255),
+    use_count   BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_exercise_usage_count_exercise UNIQUE (exercise_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_exercise_usage_count_category ON exercise_usage_count (category, use_count);
+
+CREATE TABLE user_exercise_usage_count (
+    id          BIGINT       NOT NULL,
+    username    VARCHAR(255) NOT NULL,
+    exercise_id BIGINT       NOT NULL,
+    category    VARCHAR(255),
+    use_count   BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_exercise_usage_count UNIQUE (username, exercise_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_user_exercise_usage_count_category ON user_exercise_usage_count (username, category, use_count);
@@ -0,0 +1,145 @@
+package com.fitnessapp;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import jakarta.persistence.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Benchmark: insert throughput of pooled sequence ids (batched) vs IDENTITY ids (one round trip per row)
+// Run with: mvn test -Pbenchmark -Dtest=IdGenerationBenchmarkTest
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class IdGenerationBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+    private static final int CHUNK = 1_000;
+
+    // Same columns as Workout, but with the old IDENTITY strategy
+    @Entity
+    @Table(name = "bench_identity_workout")
+    static class IdentityWorkout {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        Long userId;
+        Long exerciseId;
+        String username;
+        double weight;
+        int reps;
+        LocalDateTime timestamp;
+        boolean personalRecord;
+        int restSeconds;
+        Integer duration;
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Insert 100k workouts: pooled sequence vs IDENTITY")
+    void pooledSequenceVsIdentity() {
+        User user = userRepository.save(new User("idbench", "password123"));
+        Exercise exercise = new Exercise();
+        exercise.setName("Bench Press");
+        exercise.setCategory("chest");
+        Exercise savedExercise = exerciseRepository.save(exercise);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDateTime base = LocalDateTime.now();
+
+        // IDENTITY: Hibernate has to execute each insert immediately to learn the id
+        stats.clear();
+        long start = System.nanoTime();
+        for (int offset = 0; offset < ROWS; offset += CHUNK) {
+            int from = offset;
+            transactionTemplate.executeWithoutResult(tx -> {
+                for (int i = from; i < from + CHUNK; i++) {
+                    IdentityWorkout row = new IdentityWorkout();
+                    row.userId = user.getId();
+                    row.exerciseId = savedExercise.getId();
+                    row.username = user.getUsername();
+                    row.weight = 50 + (i % 50);
+                    row.reps = 5 + (i % 15);
+                    row.timestamp = base.minusMinutes(i);
+                    entityManager.persist(row);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        long identityNanos = System.nanoTime() - start;
+        long identityStatements = stats.getPrepareStatementCount();
+
+        // Pooled sequence: ids are allocated 50 at a time and inserts go out as JDBC batches
+        stats.clear();
+        start = System.nanoTime();
+        for (int offset = 0; offset < ROWS; offset += CHUNK) {
+            int from = offset;
+            transactionTemplate.executeWithoutResult(tx -> {
+                List<Workout> chunk = new ArrayList<>(CHUNK);
+                for (int i = from; i < from + CHUNK; i++) {
+                    Workout workout = new Workout();
+                    workout.setUser(user);
+                    workout.setUsername(user.getUsername());
+                    workout.setExercise(savedExercise);
+                    workout.setWeight(50 + (i % 50));
+                    workout.setReps(5 + (i % 15));
+                    workout.setTimestamp(base.minusMinutes(i));
+                    chunk.add(workout);
+                }
+                workoutRepository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        long pooledNanos = System.nanoTime() - start;
+        long pooledStatements = stats.getPrepareStatementCount();
+
+        double identityRate = ROWS / (identityNanos / 1e9);
+        double pooledRate = ROWS / (pooledNanos / 1e9);
+
+        System.out.println("Id generation benchmark (" + ROWS + " rows):");
+        System.out.printf("IDENTITY: %d ms, %.0f rows/s, %d statements%n", identityNanos / 1_000_000, identityRate, identityStatements);
+        System.out.printf("Pooled:   %d ms, %.0f rows/s, %d statements%n", pooledNanos / 1_000_000, pooledRate, pooledStatements);
+        System.out.printf("Speedup:  %.2fx%n", pooledRate / identityRate);
+
+        // Batching is what the change is about: one statement per row vs one per batch plus one per id block
+        assertThat(identityStatements).isGreaterThanOrEqualTo(ROWS);
+        assertThat(pooledStatements).isLessThan(ROWS / 10);
+    }
+}
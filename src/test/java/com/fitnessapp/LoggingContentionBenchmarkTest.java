@@ -0,0 +1,155 @@
+package com.fitnessapp;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.Workout;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Benchmark: per-call cost of the log-workout logging at 64 threads. "Before" is the old
+// System.out.println of the saved workout (one synchronized PrintStream shared by every thread);
+// "after" is parameterized SLF4J through an AsyncAppender set up like logback-spring.xml, once with
+// debug on and once with debug off. All output goes to a temp file so the console does not skew it.
+// Run with: mvn test -Pbenchmark -Dtest=LoggingContentionBenchmarkTest
+@Tag("benchmark")
+class LoggingContentionBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int CALLS_PER_THREAD = 20_000;
+
+    interface LogCall {
+        void log(Workout workout);
+    }
+
+    @Test
+    @DisplayName("Async SLF4J logging removes stdout contention at 64 threads")
+    void compareConsoleAndAsyncLogging() throws Exception {
+        Workout workout = sampleWorkout();
+        Path file = Files.createTempFile("logging-bench", ".log");
+        try (PrintStream console = new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile())), false)) {
+            LoggerContext context = asyncContext(file);
+            try {
+                Logger debugLogger = context.getLogger("bench.debug");
+                debugLogger.setLevel(Level.DEBUG);
+                Logger quietLogger = context.getLogger("bench.quiet");
+                quietLogger.setLevel(Level.INFO);
+
+                LogCall println = w -> console.println("Workout saved: " + w);
+                LogCall asyncDebug = w -> debugLogger.debug("Workout saved: id={}, personalRecord={}",
+                        w.getId(), w.isPersonalRecord());
+                LogCall disabledDebug = w -> quietLogger.debug("Workout saved: id={}, personalRecord={}",
+                        w.getId(), w.isPersonalRecord());
+
+                // Warm-up
+                run(println, workout);
+                run(asyncDebug, workout);
+                run(disabledDebug, workout);
+
+                double printlnNs = run(println, workout);
+                double asyncNs = run(asyncDebug, workout);
+                double disabledNs = run(disabledDebug, workout);
+
+                System.out.printf("Logging at %d threads: System.out.println %.0f ns/op | async SLF4J debug %.0f ns/op"
+                        + " | disabled debug %.1f ns/op%n", THREADS, printlnNs, asyncNs, disabledNs);
+
+                assertThat(asyncNs).isLessThan(printlnNs);
+                assertThat(disabledNs).isLessThan(asyncNs);
+            } finally {
+                context.stop();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Wall time per call across all threads (ns/op), started together from a latch
+    private static double run(LogCall call, Workout workout) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        call.log(workout);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+        return elapsed / (double) (THREADS * (long) CALLS_PER_THREAD);
+    }
+
+    // Stand-alone logback context mirroring logback-spring.xml: bounded queue, never blocks the caller
+    private static LoggerContext asyncContext(Path file) throws IOException {
+        LoggerContext context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %level %logger %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setEncoder(encoder);
+        sink.setOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile(), true)));
+        sink.setImmediateFlush(false);
+        sink.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(sink);
+        async.start();
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(async);
+        return context;
+    }
+
+    private static Workout sampleWorkout() {
+        Workout workout = new Workout();
+        workout.setId(42L);
+        workout.setUsername("benchuser");
+        workout.setExercise(new Exercise(7L, "Bench Press", "chest"));
+        workout.setWeight(100);
+        workout.setReps(5);
+        workout.setRestSeconds(90);
+        workout.setTimestamp(LocalDateTime.of(2024, 1, 1, 10, 0));
+        workout.setPersonalRecord(true);
+        return workout;
+    }
+}
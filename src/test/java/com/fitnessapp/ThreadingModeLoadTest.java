@@ -0,0 +1,170 @@
+package com.fitnessapp;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.AccessTokenService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// By myself
+// Load test for the request execution mode: the same /api/workouts/log burst from 2,000 concurrent
+// clients against the app on platform threads and on virtual threads, reporting throughput and p50/p99.
+// Virtual threads need a Java 21+ runtime, so this runs in the java21 profile.
+// Run with: mvn test -Pjava21
+@Tag("benchmark")
+@Tag("virtual-threads")
+class ThreadingModeLoadTest {
+
+    private static final int CLIENTS = 2_000;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int USERS = 100;
+
+    record LoadResult(String mode, int requests, int errors, double seconds, long p50Micros, long p99Micros) {
+        double throughput() {
+            return requests / seconds;
+        }
+
+        // Timeouts of a saturated pool are part of what is measured; only a broken run fails
+        double errorRate() {
+            return errors / (double) requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %6d req, %d errors, %6.0f req/s, p50 %6.1f ms, p99 %7.1f ms",
+                    mode, requests, errors, throughput(), p50Micros / 1000.0, p99Micros / 1000.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Platform vs virtual threads at 2k concurrent clients")
+    void compareThreadingModes() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21+");
+        LoadResult platform = run(false);
+        System.out.println(platform);
+        assertThat(platform.errorRate()).isLessThan(0.01);
+
+        LoadResult virtual = run(true);
+        System.out.println(virtual);
+        assertThat(virtual.errorRate()).isLessThan(0.01);
+
+        System.out.printf("virtual/platform: throughput x%.2f, p99 x%.2f%n",
+                virtual.throughput() / platform.throughput(), virtual.p99Micros() / (double) platform.p99Micros());
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        // Command-line arguments, so they win over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FitnessappApplication.class)
+                .run(
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--server.port=0",
+                        "--server.tomcat.max-connections=" + (CLIENTS * 2),
+                        "--server.tomcat.accept-count=" + CLIENTS,
+                        "--fitnessapp.rate-limit.enabled=false")) {
+            Load load = seed(context);
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            burst(client, port, load, WARMUP_REQUESTS / REQUESTS_PER_CLIENT, null);
+
+            int total = CLIENTS * REQUESTS_PER_CLIENT;
+            long[] latencies = new long[total];
+            AtomicInteger errors = new AtomicInteger();
+            long start = System.nanoTime();
+            burst(client, port, load, CLIENTS, new Recorder(latencies, errors));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            return new LoadResult(mode, total, errors.get(), seconds,
+                    latencies[total / 2] / 1000, latencies[(int) (total * 0.99)] / 1000);
+        }
+    }
+
+    // Seeded exercise plus one access token per load user, as /api/auth/login issues them
+    private record Load(Long exerciseId, String[] tokens) {
+    }
+
+    private static Load seed(ConfigurableApplicationContext context) {
+        UserRepository users = context.getBean(UserRepository.class);
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            batch.add(new User("load" + i, "password123"));
+        }
+        AccessTokenService accessTokenService = context.getBean(AccessTokenService.class);
+        String[] tokens = new String[USERS];
+        for (User user : users.saveAll(batch)) {
+            int i = Integer.parseInt(user.getUsername().substring("load".length()));
+            tokens[i] = accessTokenService.issue(user.getId(), user.getUsername());
+        }
+
+        Exercise exercise = new Exercise();
+        exercise.setName("Load Squat");
+        exercise.setCategory("legs");
+        return new Load(context.getBean(ExerciseRepository.class).save(exercise).getId(), tokens);
+    }
+
+    // Collects per-request latency (ns) and failures; null during warm-up
+    private record Recorder(long[] latencies, AtomicInteger errors) {
+    }
+
+    // Each client sends its requests back to back; all clients run concurrently
+    private static void burst(HttpClient client, int port, Load load, int clients, Recorder recorder) {
+        AtomicInteger slot = new AtomicInteger();
+        CompletableFuture<?>[] running = new CompletableFuture<?>[clients];
+        for (int c = 0; c < clients; c++) {
+            running[c] = sendChain(client, port, load, c, REQUESTS_PER_CLIENT, recorder, slot);
+        }
+        CompletableFuture.allOf(running).join();
+    }
+
+    private static CompletableFuture<Void> sendChain(HttpClient client, int port, Load load, int clientNo,
+                                                     int remaining, Recorder recorder, AtomicInteger slot) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        URI uri = URI.create("http://localhost:" + port + "/api/workouts/log?username=load" + (clientNo % USERS)
+                + "&exerciseId=" + load.exerciseId() + "&weight=" + (40 + remaining) + "&reps=5");
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + load.tokens()[clientNo % USERS])
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (recorder != null) {
+                        recorder.latencies()[slot.getAndIncrement()] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() != 200) {
+                            recorder.errors().incrementAndGet();
+                        }
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> sendChain(client, port, load, clientNo, remaining - 1, recorder, slot));
+    }
+}
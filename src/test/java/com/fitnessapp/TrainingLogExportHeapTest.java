@@ -0,0 +1,111 @@
+package com.fitnessapp;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.TrainingLogExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for the streaming export: heap must stay flat while 1M rows are written
+// Run with: mvn test -Pbenchmark -Dtest=TrainingLogExportHeapTest
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class TrainingLogExportHeapTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long ID_OFFSET = 1_000_000_000L; // stay clear of ids handed out by the sequence
+    private static final String USERNAME = "exportheap";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TrainingLogExportService trainingLogExportService;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"workout\" WHERE \"username\" = ?", USERNAME);
+    }
+
+    // Discards output, counts lines and samples used heap every 100k lines
+    static class HeapSamplingSink extends OutputStream {
+        long lines;
+        long maxUsedHeap;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % 100_000 == 0) {
+                maxUsedHeap = Math.max(maxUsedHeap, usedHeapAfterGc());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Exporting 1M workouts keeps heap use flat")
+    void exportKeepsHeapFlat() throws Exception {
+        User user = userRepository.findByUsername(USERNAME);
+        if (user == null) {
+            user = userRepository.save(new User(USERNAME, "password123"));
+        }
+        Exercise exercise = new Exercise();
+        exercise.setName("Deadlift");
+        exercise.setCategory("legs");
+        exercise = exerciseRepository.save(exercise);
+
+        // Bulk-load the rows inside the database rather than through JPA
+        jdbcTemplate.update(
+            "INSERT INTO \"workout\" (\"id\", \"exercise_id\", \"user_id\", \"username\", \"weight\", \"reps\", " +
+            "\"timestamp\", \"personal_record\", \"rest_seconds\", \"duration\") " +
+            "SELECT X + ?, ?, ?, ?, 50 + MOD(X, 50), 5 + MOD(X, 10), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2020-01-01 00:00:00'), FALSE, 90, 0 FROM SYSTEM_RANGE(1, ?)",
+            ID_OFFSET, exercise.getId(), user.getId(), USERNAME, ROWS);
+
+        long baseline = usedHeapAfterGc();
+        HeapSamplingSink sink = new HeapSamplingSink();
+        long written = trainingLogExportService.export(USERNAME, sink);
+        long growth = sink.maxUsedHeap - baseline;
+
+        System.out.println("Export heap results:");
+        System.out.println("Lines written: " + written);
+        System.out.println("Baseline heap: " + (baseline / 1024 / 1024) + "MB");
+        System.out.println("Peak heap during export: " + (sink.maxUsedHeap / 1024 / 1024) + "MB");
+
+        assertThat(written).isEqualTo(ROWS);
+        assertThat(sink.lines).isEqualTo(ROWS);
+        // Holding 1M Workout entities would take hundreds of MB; streaming should stay well under this
+        assertThat(growth).isLessThan(64L * 1024 * 1024);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,6 +1,7 @@
 package com.fitnessapp;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitnessapp.controller.AuthController;
 import com.fitnessapp.model.Exercise;
 import com.fitnessapp.model.User;
 import com.fitnessapp.repository.ExerciseRepository;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -67,6 +69,19 @@ class UsabilityTest {
         testExercise = exerciseRepository.save(testExercise);
     }
 
+    // Log in as the pages do; returns the Authorization header value the workout API expects
+    private String login(String username, String password) throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        body.put("username", username);
+        body.put("password", password);
+        String token = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(AuthController.TOKEN_HEADER);
+        return "Bearer " + token;
+    }
+
     @Test
     @DisplayName("Task completion efficiency test")
     void testTaskCompletionEfficiency() throws Exception {
@@ -87,11 +102,13 @@ class UsabilityTest {
             .andExpect(status().isOk());
 
         long registrationTime = System.currentTimeMillis() - startTime;
+        String auth = login("efficiencyuser", "password123");
         
         // Task 2: Workout logging
         startTime = System.currentTimeMillis();
         
         mockMvc.perform(post("/api/workouts/log")
+                .header(HttpHeaders.AUTHORIZATION, auth)
                 .param("username", "efficiencyuser")
                 .param("exerciseId", String.valueOf(testExercise.getId()))
                 .param("weight", "100")
@@ -105,6 +122,7 @@ class UsabilityTest {
         startTime = System.currentTimeMillis();
         
         mockMvc.perform(get("/api/workouts/history")
+                .header(HttpHeaders.AUTHORIZATION, auth)
                 .param("username", "efficiencyuser"))
             .andExpect(status().isOk());
 
@@ -148,6 +166,7 @@ class UsabilityTest {
 
         // Test 3: Invalid exercise ID
         mockMvc.perform(post("/api/workouts/log")
+                .header(HttpHeaders.AUTHORIZATION, login("usabilityuser", "usabilitypass123"))
                 .param("username", "usabilityuser")
                 .param("exerciseId", "99999") // Non-existent exercise
                 .param("weight", "100")
@@ -176,9 +195,11 @@ class UsabilityTest {
                 .content(objectMapper.writeValueAsString(body)))
             .andExpect(status().isOk())
             .andExpect(content().string("Registration successful"));
+        String auth = login("consistencyuser", "password123");
 
         // Test consistent response format for workout logging
         mockMvc.perform(post("/api/workouts/log")
+                .header(HttpHeaders.AUTHORIZATION, auth)
                 .param("username", "consistencyuser")
                 .param("exerciseId", String.valueOf(testExercise.getId()))
                 .param("weight", "100")
@@ -189,6 +210,7 @@ class UsabilityTest {
 
         // Test consistent response format for history retrieval
         mockMvc.perform(get("/api/workouts/history")
+                .header(HttpHeaders.AUTHORIZATION, auth)
                 .param("username", "consistencyuser"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$").isArray());
@@ -281,17 +303,11 @@ class UsabilityTest {
             .andExpect(status().isOk());
 
         // Step 2: User login
-        Map<String, Object> loginBody = new HashMap<>();
-        loginBody.put("username", "workflowuser");
-        loginBody.put("password", "password123");
-
-        mockMvc.perform(post("/api/auth/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(loginBody)))
-            .andExpect(status().isOk());
+        String auth = login("workflowuser", "password123");
 
         // Step 3: Log workout
         mockMvc.perform(post("/api/workouts/log")
+                .header(HttpHeaders.AUTHORIZATION, auth)
                 .param("username", "workflowuser")
                 .param("exerciseId", String.valueOf(testExercise.getId()))
                 .param("weight", "120")
@@ -301,6 +317,7 @@ class UsabilityTest {
 
         // Step 4: View workout history
         mockMvc.perform(get("/api/workouts/history")
+                .header(HttpHeaders.AUTHORIZATION, auth)
                 .param("username", "workflowuser"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$").isArray())
@@ -322,8 +339,9 @@ class UsabilityTest {
         // Test successful task completion rate
         int totalTasks = 0;
         int successfulTasks = 0;
+        String auth = null;
         
-        // Task 1: Registration
+        // Task 1: Registration and login
         totalTasks++;
         try {
             Map<String, Object> body = new HashMap<>();
@@ -336,6 +354,7 @@ class UsabilityTest {
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(body)))
                 .andExpect(status().isOk());
+            auth = login("satisfactionuser", "password123");
             successfulTasks++;
         } catch (Exception e) {
             // Task failed
@@ -345,6 +364,7 @@ class UsabilityTest {
         totalTasks++;
         try {
             mockMvc.perform(post("/api/workouts/log")
+                    .header(HttpHeaders.AUTHORIZATION, auth)
                     .param("username", "satisfactionuser")
                     .param("exerciseId", String.valueOf(testExercise.getId()))
                     .param("weight", "100")
@@ -359,6 +379,7 @@ class UsabilityTest {
         totalTasks++;
         try {
             mockMvc.perform(get("/api/workouts/history")
+                    .header(HttpHeaders.AUTHORIZATION, auth)
                     .param("username", "satisfactionuser"))
                 .andExpect(status().isOk());
             successfulTasks++;
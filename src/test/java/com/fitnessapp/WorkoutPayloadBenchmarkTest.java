@@ -0,0 +1,96 @@
+package com.fitnessapp;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.model.WorkoutView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Benchmark: JSON bytes and serialization ns/row of a history row, entity graph vs WorkoutView.
+// "Before" is the Workout entity with its User attached, as /history used to return it.
+// Run with: mvn test -Pbenchmark -Dtest=WorkoutPayloadBenchmarkTest
+@Tag("benchmark")
+class WorkoutPayloadBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 30;
+
+    // Re-exposes Workout.user so the entity serializes the way it did before it was ignored
+    abstract static class WorkoutWithUser {
+        @JsonIgnore(false)
+        User user;
+    }
+
+    @Test
+    @DisplayName("WorkoutView rows are smaller and cheaper to serialize than entity rows")
+    void compareEntityAndView() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper entityMapper = mapper.copy().addMixIn(Workout.class, WorkoutWithUser.class);
+
+        User user = new User("benchuser", "plaintext-password");
+        user.setId(1L);
+        user.setNickname("Bench User");
+        user.setEmail("bench@example.com");
+        user.setAge(30);
+        user.setGender("Male");
+        user.setHeight(180.0);
+        user.setWeight(80.0);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        user.setLastLoginAt(LocalDateTime.of(2024, 6, 1, 9, 0));
+
+        List<Workout> entities = new ArrayList<>(ROWS);
+        List<WorkoutView> views = new ArrayList<>(ROWS);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < ROWS; i++) {
+            Exercise exercise = new Exercise((long) (i % 40), "Exercise " + (i % 40), "chest");
+            Workout w = new Workout();
+            w.setId((long) i);
+            w.setUsername(user.getUsername());
+            w.setUser(user);
+            w.setExercise(exercise);
+            w.setWeight(60 + i % 50);
+            w.setReps(8);
+            w.setRestSeconds(90);
+            w.setTimestamp(base.plusMinutes(i));
+            w.setPersonalRecord(i % 17 == 0);
+            entities.add(w);
+            views.add(WorkoutView.of(w, exercise));
+        }
+
+        long entityBytes = entityMapper.writeValueAsBytes(entities).length;
+        long viewBytes = mapper.writeValueAsBytes(views).length;
+        double entityNs = nsPerRow(entityMapper, entities);
+        double viewNs = nsPerRow(mapper, views);
+
+        System.out.printf("History row JSON: entity %d B/row, %.0f ns/row | view %d B/row, %.0f ns/row%n",
+                entityBytes / ROWS, entityNs, viewBytes / ROWS, viewNs);
+
+        assertThat(viewBytes).isLessThan(entityBytes / 2);
+        assertThat(viewNs).isLessThan(entityNs);
+    }
+
+    private static double nsPerRow(ObjectMapper mapper, List<?> rows) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(rows);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(rows);
+        }
+        return (System.nanoTime() - start) / (double) (ITERATIONS * (long) rows.size());
+    }
+}
@@ -1,6 +1,7 @@
 package com.fitnessapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitnessapp.model.User;
 import com.fitnessapp.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,9 +15,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 
 // Use ChatGpt to generate this code and learn the logic for the tests
 // Test class for AuthController
@@ -53,6 +56,7 @@ class AuthControllerTest {
             .andExpect(content().string("Registration successful"));
 
         assertThat(userRepository.findByUsername("u1")).isNotNull();
+        assertThat(userRepository.findByUsername("u1").getPassword()).startsWith("$2a$").isNotEqualTo("secret1");
 
         Map<String, Object> login = new HashMap<>();
         login.put("username", "u1");
@@ -77,5 +81,71 @@ class AuthControllerTest {
                 .content(objectMapper.writeValueAsString(body)))
             .andExpect(status().isBadRequest());
     }
-}
 
+    @Test
+    @DisplayName("Login with a plaintext password stored before hashing replaces it with a hash")
+    void login_shouldRehashPlaintextPassword() throws Exception {
+        User legacy = new User("legacy1", "oldsecret");
+        legacy.setEmail("legacy1@example.com");
+        userRepository.save(legacy);
+
+        Map<String, Object> wrong = new HashMap<>();
+        wrong.put("username", "legacy1");
+        wrong.put("password", "notsecret");
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(wrong)))
+            .andExpect(status().isBadRequest());
+        assertThat(userRepository.findByUsername("legacy1").getPassword()).isEqualTo("oldsecret");
+
+        Map<String, Object> login = new HashMap<>();
+        login.put("username", "legacy1");
+        login.put("password", "oldsecret");
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(login)))
+            .andExpect(status().isOk())
+            .andExpect(content().string("Login successful"));
+        assertThat(userRepository.findByUsername("legacy1").getPassword()).startsWith("$2a$");
+
+        // And the hash is what logins check from now on
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(login)))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Login hands out an access token that only acts for its own user")
+    void login_shouldIssueAccessToken() throws Exception {
+        User owner = new User("token1", "secret1");
+        owner.setEmail("token1@example.com");
+        userRepository.save(owner);
+
+        Map<String, Object> login = new HashMap<>();
+        login.put("username", "token1");
+        login.put("password", "secret1");
+        String token = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(login)))
+            .andExpect(status().isOk())
+            .andExpect(content().string("Login successful"))
+            .andExpect(header().exists(AuthController.TOKEN_HEADER))
+            .andReturn().getResponse().getHeader(AuthController.TOKEN_HEADER);
+
+        mockMvc.perform(get("/api/workouts/history").param("username", "token1")
+                .header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/token1/profile")
+                .header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk());
+
+        // Someone else's data, or a token that does not verify
+        mockMvc.perform(get("/api/workouts/history").param("username", "someoneelse")
+                .header("Authorization", "Bearer " + token))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/workouts/history").param("username", "token1")
+                .header("Authorization", "Bearer " + token.substring(0, token.length() - 2)))
+            .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,66 @@
+package com.fitnessapp.controller;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.repository.ExerciseRepository;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// By myself
+// Test class for ExerciseController
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExerciseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Test
+    @DisplayName("Catalog is served with an ETag and revalidates to 304 until it changes")
+    void etagRevalidation() throws Exception {
+        Exercise first = new Exercise();
+        first.setName("Cable Crossover");
+        first.setCategory("chest");
+        exerciseRepository.save(first);
+
+        String etag = mockMvc.perform(get("/api/exercises"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, Matchers.containsString("max-age")))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/exercises").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        // A catalog change drops the snapshot, so the old validator no longer matches
+        Exercise second = new Exercise();
+        second.setName("Push-up");
+        second.setCategory("chest");
+        second = exerciseRepository.save(second);
+
+        String newEtag = mockMvc.perform(get("/api/exercises").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+
+        mockMvc.perform(get("/api/exercises/" + second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Push-up"));
+
+        mockMvc.perform(get("/api/exercises/category/chest"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.name == 'Push-up')]").exists());
+    }
+}
@@ -0,0 +1,235 @@
+package com.fitnessapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitnessapp.config.IdempotencyFilter;
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.WorkoutSessionRequest;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.IdempotencyRecordRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import com.fitnessapp.repository.WorkoutSessionRepository;
+import com.fitnessapp.service.AccessTokenService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+
+// By myself
+// Test class for the Idempotency-Key header on the workout writes
+class IdempotencyKeyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private WorkoutSessionRepository workoutSessionRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    // Token of a stored user, as /api/auth/login issues it
+    private RequestPostProcessor token(String username) {
+        String token = accessTokenService.issue(userRepository.findByUsername(username).getId(), username);
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return request;
+        };
+    }
+
+    private Long ensureData(String username) {
+        if (userRepository.findByUsername(username) == null) {
+            userRepository.save(new User(username, "p123456"));
+        }
+        Exercise e = new Exercise();
+        e.setName("Idempotent Deadlift");
+        e.setCategory("back");
+        return exerciseRepository.save(e).getId();
+    }
+
+    private RequestBuilder logSet(String username, Long exerciseId, String key) {
+        return post("/api/workouts/log").with(token(username))
+                .header("Idempotency-Key", key)
+                .param("username", username)
+                .param("exerciseId", String.valueOf(exerciseId))
+                .param("weight", "140")
+                .param("reps", "3");
+    }
+
+    @Test
+    @DisplayName("A retried log with the same key replays the original response and writes nothing")
+    void retryReplaysResponse() throws Exception {
+        Long exerciseId = ensureData("idemwu");
+        String key = UUID.randomUUID().toString();
+
+        MockHttpServletResponse first = mockMvc.perform(logSet("idemwu", exerciseId, key)).andReturn().getResponse();
+        MockHttpServletResponse retry = mockMvc.perform(logSet("idemwu", exerciseId, key)).andReturn().getResponse();
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("Idempotent-Replayed")).isNull();
+        assertThat(retry.getStatus()).isEqualTo(200);
+        assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(objectMapper.readTree(first.getContentAsString()).get("personalRecord").asBoolean()).isTrue();
+
+        assertThat(workoutRepository.findByUsernameOrderByTimestampDesc("idemwu"))
+                .filteredOn(w -> w.getExercise().getId().equals(exerciseId))
+                .hasSize(1);
+        assertThat(idempotencyRecordRepository.findByIdempotencyKey(
+                IdempotencyFilter.scopedKey("/api/workouts/log", "idemwu", key))).isNotNull();
+
+        // A new key is a new set
+        mockMvc.perform(logSet("idemwu", exerciseId, UUID.randomUUID().toString()));
+        assertThat(workoutRepository.findByUsernameOrderByTimestampDesc("idemwu"))
+                .filteredOn(w -> w.getExercise().getId().equals(exerciseId))
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A key reused with a different payload is rejected with 422 and writes nothing")
+    void reusedKeyWithDifferentPayload() throws Exception {
+        Long exerciseId = ensureData("idemreuse");
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(logSet("idemreuse", exerciseId, key)).andReturn();
+        MockHttpServletResponse reused = mockMvc.perform(post("/api/workouts/log").with(token("idemreuse"))
+                .header("Idempotency-Key", key)
+                .param("username", "idemreuse")
+                .param("exerciseId", String.valueOf(exerciseId))
+                .param("weight", "150")
+                .param("reps", "3")).andReturn().getResponse();
+
+        assertThat(reused.getStatus()).isEqualTo(422);
+        assertThat(reused.getHeader("Idempotent-Replayed")).isNull();
+        assertThat(workoutRepository.findByUsernameOrderByTimestampDesc("idemreuse"))
+                .filteredOn(w -> w.getExercise().getId().equals(exerciseId))
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("The same key from two users logs a set for each instead of replaying across them")
+    void keysAreScopedToTheUser() throws Exception {
+        Long exerciseId = ensureData("idemone");
+        ensureData("idemtwo");
+        String key = UUID.randomUUID().toString();
+
+        MockHttpServletResponse first = mockMvc.perform(logSet("idemone", exerciseId, key)).andReturn().getResponse();
+        MockHttpServletResponse second = mockMvc.perform(logSet("idemtwo", exerciseId, key)).andReturn().getResponse();
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader("Idempotent-Replayed")).isNull();
+        assertThat(workoutRepository.findByUsernameOrderByTimestampDesc("idemtwo"))
+                .filteredOn(w -> w.getExercise().getId().equals(exerciseId))
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("The same key sent from many threads at once logs one set")
+    void concurrentLogsWithSameKey() throws Exception {
+        Long exerciseId = ensureData("idemrace");
+        String key = UUID.randomUUID().toString();
+
+        List<MockHttpServletResponse> responses = sendConcurrently(() -> logSet("idemrace", exerciseId, key));
+
+        assertThat(responses).allSatisfy(r -> assertThat(r.getStatus()).isEqualTo(200));
+        assertThat(responses).extracting(this::body).containsOnly(body(responses.get(0)));
+        assertThat(responses).filteredOn(r -> r.getHeader("Idempotent-Replayed") == null).hasSize(1);
+        assertThat(workoutRepository.findByUsernameOrderByTimestampDesc("idemrace"))
+                .filteredOn(w -> w.getExercise().getId().equals(exerciseId))
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("The same session key sent from many threads at once saves one session")
+    void concurrentSessionsWithSameKey() throws Exception {
+        ensureData("idemsession");
+        String key = UUID.randomUUID().toString();
+        String json = objectMapper.writeValueAsString(new WorkoutSessionRequest(
+                "idemsession", "00:30:00", 5, 2500.0, 40, 0,
+                System.currentTimeMillis() - 30 * 60_000, System.currentTimeMillis()));
+
+        List<MockHttpServletResponse> responses = sendConcurrently(() -> post("/api/workouts/session").with(token("idemsession"))
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json));
+
+        assertThat(responses).allSatisfy(r -> assertThat(r.getStatus()).isEqualTo(200));
+        assertThat(responses).extracting(this::body).containsOnly("Workout session saved successfully");
+        assertThat(workoutSessionRepository.findAll())
+                .filteredOn(s -> "idemsession".equals(s.getUsername()))
+                .hasSize(1);
+    }
+
+    // Fire THREADS identical requests released together by a latch
+    private List<MockHttpServletResponse> sendConcurrently(Callable<RequestBuilder> request) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    RequestBuilder builder = request.call();
+                    start.await();
+                    return mockMvc.perform(builder).andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+            List<MockHttpServletResponse> responses = new ArrayList<>();
+            for (Future<MockHttpServletResponse> f : futures) {
+                responses.add(f.get());
+            }
+            return responses;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private String body(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.fitnessapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitnessapp.service.AccessTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// By myself
+// Test class for the rate limits on login and set logging, with small buckets that do not refill during the test
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ratelimit;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "fitnessapp.rate-limit.enabled=true",
+        "fitnessapp.rate-limit.auth.per-ip.capacity=3",
+        "fitnessapp.rate-limit.auth.per-ip.per-minute=0.01",
+        "fitnessapp.rate-limit.auth.per-user.capacity=2",
+        "fitnessapp.rate-limit.auth.per-user.per-minute=0.01",
+        "fitnessapp.rate-limit.log.per-user.capacity=2",
+        "fitnessapp.rate-limit.log.per-user.per-minute=0.01"
+})
+@AutoConfigureMockMvc
+class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    private MockHttpServletRequestBuilder login(String username, String ip) throws Exception {
+        return post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("username", username, "password", "wrongpass")))
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                });
+    }
+
+    // Set logged for a user with the token of another (or the same) one; exercise -1 does not exist, so
+    // requests that get through answer 400, or 403 when the token is not the named user's
+    private MockHttpServletRequestBuilder logSet(String tokenUser, String username) {
+        return post("/api/workouts/log")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessTokenService.issue(0L, tokenUser))
+                .param("username", username).param("exerciseId", "-1").param("weight", "50").param("reps", "5");
+    }
+
+    private double rejections(String route, String scope) {
+        return meterRegistry.get("fitnessapp.rate.limit.rejections").tag("route", route).tag("scope", scope).counter().count();
+    }
+
+    @Test
+    @DisplayName("Login attempts are limited per client IP")
+    void loginPerIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(login("stuffed" + i, "10.1.0.1")).andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(login("stuffed3", "10.1.0.1"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(login("stuffed3", "10.1.0.2")).andExpect(status().isBadRequest());
+        assertThat(rejections("auth", "ip")).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Login attempts are limited per username from one IP, without locking the owner out elsewhere")
+    void loginPerUser() throws Exception {
+        mockMvc.perform(login("victim", "10.2.0.1")).andExpect(status().isBadRequest());
+        mockMvc.perform(login("victim", "10.2.0.1")).andExpect(status().isBadRequest());
+        mockMvc.perform(login("victim", "10.2.0.1"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists("Retry-After"));
+        assertThat(rejections("auth", "user")).isGreaterThanOrEqualTo(1);
+
+        // The account's owner, from another IP, still gets to try
+        mockMvc.perform(login("victim", "10.2.0.2")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Set logging is limited per token user, not per the username a request names")
+    void logPerUser() throws Exception {
+        // Requests naming "looping" with someone else's token do not touch looping's bucket
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(logSet("intruder" + i, "looping")).andExpect(status().isForbidden());
+        }
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(logSet("looping", "looping")).andExpect(status().isBadRequest()); // got through
+        }
+        mockMvc.perform(logSet("looping", "looping")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(logSet("someoneelse", "someoneelse")).andExpect(status().isBadRequest());
+        assertThat(rejections("log", "user")).isGreaterThanOrEqualTo(1);
+    }
+}
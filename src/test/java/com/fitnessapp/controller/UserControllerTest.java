@@ -3,15 +3,23 @@ package com.fitnessapp.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitnessapp.model.User;
 import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.AccessTokenService;
+import com.fitnessapp.service.LastLoginTracker;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +38,21 @@ class UserControllerTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private LastLoginTracker lastLoginTracker;
+
+    // Token of a stored user, as /api/auth/login issues it
+    private RequestPostProcessor token(String username) {
+        String token = accessTokenService.issue(userRepository.findByUsername(username).getId(), username);
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return request;
+        };
+    }
+
     @Test
     @DisplayName("Get and update user profile")
     void getAndUpdateProfile() throws Exception {
@@ -38,7 +61,7 @@ class UserControllerTest {
         u.setNickname("nick");
         userRepository.save(u);
 
-        mockMvc.perform(get("/api/users/u3/profile"))
+        mockMvc.perform(get("/api/users/u3/profile").with(token("u3")))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.username").value("u3"));
 
@@ -50,7 +73,7 @@ class UserControllerTest {
         update.setAge(30);
         update.setGender("Male");
 
-        mockMvc.perform(put("/api/users/u3/profile")
+        mockMvc.perform(put("/api/users/u3/profile").with(token("u3"))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(update)))
             .andExpect(status().isOk())
@@ -60,5 +83,93 @@ class UserControllerTest {
         assertThat(after.getNickname()).isEqualTo("newNick");
         assertThat(after.getEmail()).isEqualTo("e@x.com");
     }
-}
 
+    @Test
+    @DisplayName("Cached profile reflects updates")
+    void cachedProfileInvalidatedOnUpdate() throws Exception {
+        userRepository.save(new User("u4", "pass123"));
+
+        // First read populates the user directory cache
+        mockMvc.perform(get("/api/users/u4/profile").with(token("u4")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nickname").doesNotExist());
+
+        User update = new User();
+        update.setNickname("cachedNick");
+        update.setHeight(170.0);
+        update.setWeight(70.0);
+        mockMvc.perform(put("/api/users/u4/profile").with(token("u4"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/u4/profile").with(token("u4")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nickname").value("cachedNick"))
+            .andExpect(jsonPath("$.bmi").isNumber());
+
+        mockMvc.perform(get("/api/users/u4").with(token("u4")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Only admin tokens list users, and never with password hashes")
+    void listUsersNeedsAdmin() throws Exception {
+        userRepository.save(new User("u6", "pass123"));
+
+        mockMvc.perform(get("/api/users").with(token("u6")))
+            .andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/api/admin/users").with(token("u6")))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/users")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessTokenService.issue(0L, "admin")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.username == 'u6')]").exists())
+            .andExpect(jsonPath("$[*].password").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Last login is buffered, visible to stats, and written on flush")
+    void lastLoginWriteBehind() throws Exception {
+        LocalDateTime old = LocalDateTime.of(2020, 1, 1, 8, 0);
+        User u = new User("u5", "pass123");
+        u.setLastLoginAt(old);
+        userRepository.save(u);
+
+        mockMvc.perform(put("/api/users/u5/last-login").with(token("u5")))
+            .andExpect(status().isOk())
+            .andExpect(content().string("Last login time updated successfully"));
+
+        // Not written yet, but the stats endpoint reads through the buffer
+        assertThat(userRepository.findByUsername("u5").getLastLoginAt()).isEqualTo(old);
+        mockMvc.perform(get("/api/users/u5/stats").with(token("u5")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lastLoginAt").value(not(startsWith("2020"))));
+
+        assertThat(lastLoginTracker.flush()).isGreaterThanOrEqualTo(1);
+        assertThat(userRepository.findByUsername("u5").getLastLoginAt()).isAfter(old);
+    }
+
+    @Test
+    @DisplayName("One flush writes each user's own login time at full precision, never moving it backwards")
+    void lastLoginFlushKeepsEachTime() {
+        LocalDateTime first = LocalDateTime.of(2024, 5, 1, 7, 30, 15, 123_456_000);
+        LocalDateTime second = first.plusNanos(1_000);
+        LocalDateTime newer = LocalDateTime.of(2025, 1, 1, 0, 0);
+        userRepository.save(new User("u7", "pass123"));
+        userRepository.save(new User("u8", "pass123"));
+        User recent = new User("u9", "pass123");
+        recent.setLastLoginAt(newer);
+        userRepository.save(recent);
+
+        lastLoginTracker.record("u7", first);
+        lastLoginTracker.record("u8", second);
+        lastLoginTracker.record("u9", first);
+        lastLoginTracker.flush();
+
+        assertThat(userRepository.findByUsername("u7").getLastLoginAt()).isEqualTo(first);
+        assertThat(userRepository.findByUsername("u8").getLastLoginAt()).isEqualTo(second);
+        assertThat(userRepository.findByUsername("u9").getLastLoginAt()).isEqualTo(newer);
+    }
+}
@@ -1,18 +1,37 @@
 package com.fitnessapp.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitnessapp.model.Exercise;
 import com.fitnessapp.model.User;
+import com.fitnessapp.model.WorkoutSession;
 import com.fitnessapp.model.WorkoutSessionRequest;
+import com.fitnessapp.model.WorkoutSetRequest;
 import com.fitnessapp.repository.ExerciseRepository;
 import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutSessionRepository;
+import com.fitnessapp.service.AccessTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +55,29 @@ class WorkoutControllerTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WorkoutSessionRepository workoutSessionRepository;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    // Request carrying the token of "admin", listed in fitnessapp.auth.admin-users of the test configuration
+    private MockHttpServletRequestBuilder asAdmin(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessTokenService.issue(0L, "admin"));
+    }
+
+    // Token of a stored user, as /api/auth/login issues it
+    private RequestPostProcessor token(String username) {
+        String token = accessTokenService.issue(userRepository.findByUsername(username).getId(), username);
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return request;
+        };
+    }
+
     private void ensureBaseData() {
         if (userRepository.findByUsername("wu") == null) {
             userRepository.save(new User("wu", "p123456"));
@@ -55,7 +97,7 @@ class WorkoutControllerTest {
 
         Long exerciseId = exerciseRepository.findAll().get(0).getId();
 
-        mockMvc.perform(post("/api/workouts/log")
+        mockMvc.perform(post("/api/workouts/log").with(token("wu"))
                 .param("username", "wu")
                 .param("exerciseId", String.valueOf(exerciseId))
                 .param("weight", "80")
@@ -64,7 +106,7 @@ class WorkoutControllerTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.id").exists());
 
-        mockMvc.perform(get("/api/workouts/history").param("username", "wu"))
+        mockMvc.perform(get("/api/workouts/history").with(token("wu")).param("username", "wu"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].username").value("wu"));
 
@@ -73,11 +115,461 @@ class WorkoutControllerTest {
             System.currentTimeMillis() - 40_000, System.currentTimeMillis()
         );
 
-        mockMvc.perform(post("/api/workouts/session")
+        mockMvc.perform(post("/api/workouts/session").with(token("wu"))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(req)))
             .andExpect(status().isOk())
             .andExpect(content().string("Workout session saved successfully"));
+
+        // A tokened request without a username is invalid, not someone else's
+        WorkoutSessionRequest anonymous = new WorkoutSessionRequest(
+            null, "00:10:00", 1, 100.0, 10, 0, System.currentTimeMillis() - 10_000, System.currentTimeMillis());
+        mockMvc.perform(post("/api/workouts/session").with(token("wu"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(anonymous)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Username cannot be empty"));
     }
-}
 
+    @Test
+    @DisplayName("Rebuild endpoints need an admin token")
+    void adminEndpointsNeedAdmin() throws Exception {
+        for (String path : List.of("/api/admin/pr-index/rebuild", "/api/admin/rollups/rebuild",
+                "/api/admin/progression/rebuild", "/api/admin/popularity/reconcile")) {
+            mockMvc.perform(post(path)).andExpect(status().isUnauthorized());
+            mockMvc.perform(post(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + accessTokenService.issue(1L, "wu")))
+                .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(post("/api/workouts/pr-index/rebuild")).andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    @DisplayName("PR flags come from the best lift index and survive a rebuild")
+    void personalRecordIndex() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("prwu") == null) {
+            userRepository.save(new User("prwu", "p123456"));
+        }
+
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+
+        logSet("prwu", exerciseId, "80").andExpect(jsonPath("$.personalRecord").value(true));
+        logSet("prwu", exerciseId, "70").andExpect(jsonPath("$.personalRecord").value(false));
+        logSet("prwu", exerciseId, "80").andExpect(jsonPath("$.personalRecord").value(false));
+
+        mockMvc.perform(asAdmin(post("/api/admin/pr-index/rebuild")))
+            .andExpect(status().isOk());
+
+        logSet("prwu", exerciseId, "75").andExpect(jsonPath("$.personalRecord").value(false));
+        logSet("prwu", exerciseId, "85").andExpect(jsonPath("$.personalRecord").value(true));
+    }
+
+    @Test
+    @DisplayName("Batch log computes PR flags in request order")
+    void logBatch() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("batchwu") == null) {
+            userRepository.save(new User("batchwu", "p123456"));
+        }
+
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+        List<WorkoutSetRequest> sets = List.of(
+            new WorkoutSetRequest(exerciseId, 60, 10, 90, 0),
+            new WorkoutSetRequest(exerciseId, 70, 8, 90, 0),
+            new WorkoutSetRequest(exerciseId, 65, 8, 90, 0),
+            new WorkoutSetRequest(exerciseId, 70, 6, 90, 0)
+        );
+
+        mockMvc.perform(post("/api/workouts/log/batch").with(token("batchwu"))
+                .param("username", "batchwu")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sets)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.saved").value(4))
+            .andExpect(jsonPath("$.personalRecords").value(2))
+            .andExpect(jsonPath("$.ids.length()").value(4));
+
+        // The batch raised the index, so a lighter single set is not a PR
+        logSet("batchwu", exerciseId, "69").andExpect(jsonPath("$.personalRecord").value(false));
+
+        mockMvc.perform(post("/api/workouts/log/batch").with(token("batchwu"))
+                .param("username", "batchwu")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(new WorkoutSetRequest(-1L, 60, 10, 90, 0)))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("History pages walk the whole log once, newest first")
+    void historyKeysetPages() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("pagewu") == null) {
+            userRepository.save(new User("pagewu", "p123456"));
+        }
+
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+        long t = 1_700_000_000_000L;
+        List<WorkoutSetRequest> sets = List.of(
+            new WorkoutSetRequest(exerciseId, 60, 10, 90, t),
+            new WorkoutSetRequest(exerciseId, 62, 10, 90, t + 60_000),
+            new WorkoutSetRequest(exerciseId, 64, 10, 90, t + 60_000), // same second as the previous set
+            new WorkoutSetRequest(exerciseId, 66, 10, 90, t + 120_000),
+            new WorkoutSetRequest(exerciseId, 68, 10, 90, t + 180_000)
+        );
+        mockMvc.perform(post("/api/workouts/log/batch").with(token("pagewu"))
+                .param("username", "pagewu")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sets)))
+            .andExpect(status().isOk());
+
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/workouts/history/page").with(token("pagewu")).param("username", "pagewu").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            for (JsonNode item : page.get("items")) {
+                assertThat(seen.add(item.get("id").asLong())).isTrue();
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(5);
+        assertThat(pages).isEqualTo(3);
+
+        mockMvc.perform(get("/api/workouts/history/page").with(token("pagewu")).param("username", "pagewu").param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Export streams the training log as NDJSON")
+    void exportNdjson() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("exportwu") == null) {
+            userRepository.save(new User("exportwu", "p123456"));
+        }
+
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+        logSet("exportwu", exerciseId, "50");
+        logSet("exportwu", exerciseId, "55");
+
+        String body = mockMvc.perform(get("/api/workouts/export").with(token("exportwu")).param("username", "exportwu"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.trim().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("type").asText()).isEqualTo("workout");
+        assertThat(objectMapper.readTree(lines[1]).get("weight").asDouble()).isEqualTo(55.0);
+
+        // Without a token nobody's log is exported
+        mockMvc.perform(get("/api/workouts/export").param("username", "exportwu"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Popularity endpoints read the materialized counters")
+    void popularityCounters() throws Exception {
+        for (String name : List.of("popa", "popb")) {
+            if (userRepository.findByUsername(name) == null) {
+                userRepository.save(new User(name, "p123456"));
+            }
+        }
+        Exercise a = new Exercise();
+        a.setName("Pop A");
+        a.setCategory("popcat");
+        a = exerciseRepository.save(a);
+        Exercise b = new Exercise();
+        b.setName("Pop B");
+        b.setCategory("popcat");
+        b = exerciseRepository.save(b);
+
+        for (int i = 0; i < 3; i++) {
+            logSet("popa", a.getId(), "50");
+        }
+        logSet("popb", b.getId(), "50");
+        logSet("popb", b.getId(), "50");
+        logSet("popb", a.getId(), "50");
+
+        mockMvc.perform(get("/api/workouts/popular").with(token("popa")).param("category", "popcat"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Pop A"))
+            .andExpect(jsonPath("$[1].name").value("Pop B"));
+
+        mockMvc.perform(get("/api/workouts/most-used").with(token("popb")).param("username", "popb").param("category", "popcat"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Pop B"));
+
+        // Without popa's own sets, A has 1 and B has 2
+        mockMvc.perform(get("/api/workouts/popular-exclude-self").with(token("popa")).param("category", "popcat").param("username", "popa"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Pop B"))
+            .andExpect(jsonPath("$[1].name").value("Pop A"));
+
+        mockMvc.perform(asAdmin(post("/api/admin/popularity/reconcile")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.globalCounters").isNumber());
+
+        // Reconciliation keeps the counters consistent with the workout rows
+        mockMvc.perform(get("/api/workouts/popular").with(token("popa")).param("category", "popcat"))
+            .andExpect(jsonPath("$[0].name").value("Pop A"));
+    }
+
+    @Test
+    @DisplayName("Trending leaderboard ranks the exercises logged today")
+    void trendingLeaderboard() throws Exception {
+        if (userRepository.findByUsername("trendwu") == null) {
+            userRepository.save(new User("trendwu", "p123456"));
+        }
+        Exercise a = new Exercise();
+        a.setName("Trend A");
+        a.setCategory("trendcat");
+        a = exerciseRepository.save(a);
+        Exercise b = new Exercise();
+        b.setName("Trend B");
+        b.setCategory("trendcat");
+        b = exerciseRepository.save(b);
+
+        logSet("trendwu", a.getId(), "40");
+        for (int i = 0; i < 3; i++) {
+            logSet("trendwu", b.getId(), "40");
+        }
+
+        mockMvc.perform(get("/api/workouts/trending").with(token("trendwu")).param("category", "trendcat"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Trend B"))
+            .andExpect(jsonPath("$[0].maxError").value(0.0))
+            .andExpect(jsonPath("$[1].name").value("Trend A"));
+
+        mockMvc.perform(get("/api/workouts/trending").with(token("trendwu")).param("category", "trendcat").param("limit", "1"))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @DisplayName("PRs and saved sessions are counted")
+    void activityCounters() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("metricswu") == null) {
+            userRepository.save(new User("metricswu", "p123456"));
+        }
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+        double prsBefore = meterRegistry.counter("fitnessapp.personal.records").count();
+        double sessionsBefore = meterRegistry.counter("fitnessapp.sessions.saved").count();
+
+        logSet("metricswu", exerciseId, "60").andExpect(jsonPath("$.personalRecord").value(true));
+        logSet("metricswu", exerciseId, "50").andExpect(jsonPath("$.personalRecord").value(false));
+        logSet("metricswu", exerciseId, "65").andExpect(jsonPath("$.personalRecord").value(true));
+
+        WorkoutSessionRequest req = new WorkoutSessionRequest("metricswu", "00:20:00", 3, 1050.0, 24, 2,
+            System.currentTimeMillis() - 20 * 60_000, System.currentTimeMillis());
+        mockMvc.perform(post("/api/workouts/session").with(token("metricswu"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk());
+
+        assertThat(meterRegistry.counter("fitnessapp.personal.records").count() - prsBefore).isEqualTo(2.0);
+        assertThat(meterRegistry.counter("fitnessapp.sessions.saved").count() - sessionsBefore).isEqualTo(1.0);
+        assertThat(meterRegistry.find("http.server.requests").tag("uri", "/api/workouts/log").timer()).isNotNull();
+        assertThat(meterRegistry.find("spring.data.repository.invocations").tag("repository", "WorkoutRepository").timer()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Session totals are accumulated on the server from the sets logged with its id")
+    void serverSideSessionTotals() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("sessionwu") == null) {
+            userRepository.save(new User("sessionwu", "p123456"));
+        }
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+
+        String body = mockMvc.perform(post("/api/workouts/session/start").with(token("sessionwu")).param("username", "sessionwu"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String sessionId = objectMapper.readTree(body).get("sessionId").asText();
+
+        for (String weight : List.of("100", "90", "110")) {
+            mockMvc.perform(post("/api/workouts/log").with(token("sessionwu"))
+                    .param("username", "sessionwu")
+                    .param("exerciseId", String.valueOf(exerciseId))
+                    .param("weight", weight)
+                    .param("reps", "5")
+                    .param("sessionId", sessionId))
+                .andExpect(status().isOk());
+        }
+        // Logged without the session id (or with the empty one the page sends): not part of it
+        logSet("sessionwu", exerciseId, "120");
+        mockMvc.perform(post("/api/workouts/log").with(token("sessionwu"))
+                .param("username", "sessionwu")
+                .param("exerciseId", String.valueOf(exerciseId))
+                .param("weight", "60")
+                .param("reps", "5")
+                .param("sessionId", ""))
+            .andExpect(status().isOk());
+
+        // Ids that are unknown or belong to another user are rejected rather than silently not counted
+        String otherSession = objectMapper.readTree(mockMvc.perform(post("/api/workouts/session/start").with(token("wu")).param("username", "wu"))
+            .andReturn().getResponse().getContentAsString()).get("sessionId").asText();
+        for (String badId : List.of("no-such-session", otherSession)) {
+            mockMvc.perform(post("/api/workouts/log").with(token("sessionwu"))
+                    .param("username", "sessionwu")
+                    .param("exerciseId", String.valueOf(exerciseId))
+                    .param("weight", "130")
+                    .param("reps", "5")
+                    .param("sessionId", badId))
+                .andExpect(status().isConflict());
+            mockMvc.perform(post("/api/workouts/log/batch").with(token("sessionwu"))
+                    .param("username", "sessionwu")
+                    .param("sessionId", badId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(new WorkoutSetRequest(exerciseId, 130, 5, 60, 0)))))
+                .andExpect(status().isConflict());
+        }
+
+        // Client totals are wrong on purpose; the server's win
+        WorkoutSessionRequest req = new WorkoutSessionRequest("sessionwu", "00:15:00", 99, 1.0, 1, 9, 0, 0);
+        req.setSessionId(sessionId);
+        mockMvc.perform(post("/api/workouts/session").with(token("sessionwu"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+            .andExpect(status().isOk());
+
+        WorkoutSession saved = workoutSessionRepository.findAll().stream()
+            .filter(s -> "sessionwu".equals(s.getUsername()))
+            .findFirst().orElseThrow();
+        assertThat(saved.isServerTotals()).isTrue();
+        assertThat(saved.getTotalSets()).isEqualTo(3);
+        assertThat(saved.getTotalReps()).isEqualTo(15);
+        assertThat(saved.getTotalVolume()).isEqualTo(1500.0);
+        assertThat(saved.getPrCount()).isEqualTo(2);
+        assertThat(saved.getStartTime()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Daily and weekly rollups match the logged sets and survive a rebuild")
+    void trainingRollups() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("rollupwu") == null) {
+            userRepository.save(new User("rollupwu", "p123456"));
+        }
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+        LocalDateTime monday = LocalDateTime.of(2024, 3, 4, 10, 0);
+        List<WorkoutSetRequest> sets = List.of(
+            new WorkoutSetRequest(exerciseId, 100, 5, 90, epochMillis(monday)),
+            new WorkoutSetRequest(exerciseId, 110, 3, 90, epochMillis(monday.plusMinutes(5))),
+            new WorkoutSetRequest(exerciseId, 80, 10, 90, epochMillis(monday.plusDays(2))),
+            new WorkoutSetRequest(exerciseId, 120, 2, 90, epochMillis(monday.plusDays(7)))
+        );
+        mockMvc.perform(post("/api/workouts/log/batch").with(token("rollupwu"))
+                .param("username", "rollupwu")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sets)))
+            .andExpect(status().isOk());
+
+        String daily = mockMvc.perform(get("/api/workouts/rollups/daily").with(token("rollupwu"))
+                .param("username", "rollupwu").param("from", "2024-03-04").param("to", "2024-03-11"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.labels.length()").value(8))
+            .andExpect(jsonPath("$.labels[0]").value("2024-03-04"))
+            .andExpect(jsonPath("$.sets[0]").value(2))
+            .andExpect(jsonPath("$.reps[0]").value(8))
+            .andExpect(jsonPath("$.volume[0]").value(830.0))
+            .andExpect(jsonPath("$.maxWeight[0]").value(110.0))
+            .andExpect(jsonPath("$.sets[1]").value(0))
+            .andExpect(jsonPath("$.volume[2]").value(800.0))
+            .andExpect(jsonPath("$.maxWeight[7]").value(120.0))
+            .andReturn().getResponse().getContentAsString();
+
+        String weekly = mockMvc.perform(get("/api/workouts/rollups/weekly").with(token("rollupwu"))
+                .param("username", "rollupwu").param("from", "2024-03-06").param("to", "2024-03-11"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.labels[0]").value("2024-W10"))
+            .andExpect(jsonPath("$.labels[1]").value("2024-W11"))
+            .andExpect(jsonPath("$.sets[0]").value(3))
+            .andExpect(jsonPath("$.volume[0]").value(1630.0))
+            .andExpect(jsonPath("$.sets[1]").value(1))
+            .andExpect(jsonPath("$.volume[1]").value(240.0))
+            .andReturn().getResponse().getContentAsString();
+
+        // Rebuilding from the workout table gives the same series
+        mockMvc.perform(asAdmin(post("/api/admin/rollups/rebuild"))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/workouts/rollups/daily").with(token("rollupwu"))
+                .param("username", "rollupwu").param("from", "2024-03-04").param("to", "2024-03-11"))
+            .andExpect(content().json(daily, true));
+        mockMvc.perform(get("/api/workouts/rollups/weekly").with(token("rollupwu"))
+                .param("username", "rollupwu").param("from", "2024-03-06").param("to", "2024-03-11"))
+            .andExpect(content().json(weekly, true));
+
+        mockMvc.perform(get("/api/workouts/rollups/daily").with(token("rollupwu"))
+                .param("username", "rollupwu").param("from", "2020-01-01").param("to", "2024-03-11"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("e1RM progression follows the logged sets and survives a rebuild")
+    void e1rmProgression() throws Exception {
+        ensureBaseData();
+        if (userRepository.findByUsername("progresswu") == null) {
+            userRepository.save(new User("progresswu", "p123456"));
+        }
+        Long exerciseId = exerciseRepository.findAll().get(0).getId();
+        LocalDateTime start = LocalDate.now(ZoneOffset.UTC).minusDays(3).atTime(10, 0);
+        List<WorkoutSetRequest> sets = List.of(
+            new WorkoutSetRequest(exerciseId, 100, 5, 90, epochMillis(start)),               // Epley 116.67
+            new WorkoutSetRequest(exerciseId, 110, 3, 90, epochMillis(start.plusMinutes(5))), // 121.0, top of the day
+            new WorkoutSetRequest(exerciseId, 40, 20, 90, epochMillis(start.plusMinutes(9))), // too many reps: not counted
+            new WorkoutSetRequest(exerciseId, 105, 5, 90, epochMillis(start.plusDays(2)))      // 122.5
+        );
+        mockMvc.perform(post("/api/workouts/log/batch").with(token("progresswu"))
+                .param("username", "progresswu")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sets)))
+            .andExpect(status().isOk());
+
+        String progression = mockMvc.perform(get("/api/workouts/progression").with(token("progresswu"))
+                .param("username", "progresswu").param("exerciseId", String.valueOf(exerciseId)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.formula").value("epley"))
+            .andExpect(jsonPath("$.bestE1rm").value(122.5))
+            .andExpect(jsonPath("$.setsCounted").value(3))
+            .andExpect(jsonPath("$.sessionE1rm[0]").value(121.0))
+            .andExpect(jsonPath("$.sessionE1rm[1]").value(122.5))
+            .andExpect(jsonPath("$.rollingAverage").value(121.75))
+            .andExpect(jsonPath("$.rollingSessions").value(2))
+            .andExpect(jsonPath("$.slopePerSession").value(1.5))
+            .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/workouts/progression").with(token("progresswu")).param("username", "progresswu"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/workouts/progression").with(token("progresswu"))
+                .param("username", "progresswu").param("exerciseId", "-1"))
+            .andExpect(status().isNotFound());
+
+        // Rebuilding from the workout table gives the same state
+        mockMvc.perform(asAdmin(post("/api/admin/progression/rebuild"))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/workouts/progression").with(token("progresswu"))
+                .param("username", "progresswu").param("exerciseId", String.valueOf(exerciseId)))
+            .andExpect(content().json(progression, true));
+    }
+
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000;
+    }
+
+    private ResultActions logSet(String username, Long exerciseId, String weight) throws Exception {
+        return mockMvc.perform(post("/api/workouts/log").with(token(username))
+                .param("username", username)
+                .param("exerciseId", String.valueOf(exerciseId))
+                .param("weight", weight)
+                .param("reps", "5"))
+            .andExpect(status().isOk());
+    }
+}
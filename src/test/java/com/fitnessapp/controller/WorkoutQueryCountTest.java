@@ -0,0 +1,173 @@
+package com.fitnessapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.WorkoutSetRequest;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.service.AccessTokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// By myself
+// Guards the fetch plans of the workout endpoints: a list must cost one SELECT no matter how many
+// distinct exercises it contains, and logging a set must not load the User or Exercise rows.
+// Statistics are switched on for this class only; their per-session summary stays out of the log.
+// The context differs from the other MockMvc tests, so it gets its own database rather than recreating theirs.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class WorkoutQueryCountTest {
+
+    private static final String USERNAME = "qc";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics stats;
+    private static final List<Long> exerciseIds = new ArrayList<>(); // seeded once per run
+    private static String token;
+
+    // Token of the seeded user, as /api/auth/login issues it; issued once so it costs no query under measurement
+    private RequestPostProcessor token() {
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return request;
+        };
+    }
+
+    @BeforeEach
+    void seed() throws Exception {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!exerciseIds.isEmpty()) {
+            return;
+        }
+        token = accessTokenService.issue(userRepository.save(new User(USERNAME, "p123456")).getId(), USERNAME);
+        for (int i = 0; i < 5; i++) {
+            Exercise e = new Exercise();
+            e.setName("Query Count " + i);
+            e.setCategory("qc-" + (i % 2));
+            exerciseIds.add(exerciseRepository.save(e).getId());
+        }
+
+        List<WorkoutSetRequest> sets = new ArrayList<>();
+        long ts = 1_700_000_000_000L;
+        for (int i = 0; i < 20; i++) {
+            sets.add(new WorkoutSetRequest(exerciseIds.get(i % exerciseIds.size()), 40 + i, 8, 60, ts + i * 60_000L));
+        }
+        mockMvc.perform(post("/api/workouts/log/batch").with(token())
+                .param("username", USERNAME)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sets)))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("History list is a single SELECT with exercises fetched")
+    void historyIsOneQuery() throws Exception {
+        stats.clear();
+        mockMvc.perform(get("/api/workouts/history").with(token()).param("username", USERNAME))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(greaterThanOrEqualTo(20)))
+            .andExpect(jsonPath("$[0].exercise.name").exists())
+            .andExpect(jsonPath("$[0].user").doesNotExist());
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(entityLoads(User.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("History by exercise is a single SELECT")
+    void historyByExerciseIsOneQuery() throws Exception {
+        stats.clear();
+        mockMvc.perform(get("/api/workouts/history").with(token())
+                .param("username", USERNAME)
+                .param("exerciseId", String.valueOf(exerciseIds.get(0))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].exercise.category").exists());
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("History page is a single SELECT")
+    void historyPageIsOneQuery() throws Exception {
+        stats.clear();
+        mockMvc.perform(get("/api/workouts/history/page").with(token())
+                .param("username", USERNAME)
+                .param("size", "15"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(15))
+            .andExpect(jsonPath("$.items[14].exercise.name").exists());
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(entityLoads(User.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Daily rollup series is a single SELECT")
+    void dailyRollupIsOneQuery() throws Exception {
+        stats.clear();
+        mockMvc.perform(get("/api/workouts/rollups/daily").with(token())
+                .param("username", USERNAME)
+                .param("from", "2024-01-01")
+                .param("to", "2024-12-31"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.labels.length()").value(366));
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Logging a set loads neither the user nor the exercise")
+    void logSetLoadsNoAssociations() throws Exception {
+        stats.clear();
+        mockMvc.perform(post("/api/workouts/log").with(token())
+                .param("username", USERNAME)
+                .param("exerciseId", String.valueOf(exerciseIds.get(1)))
+                .param("weight", "30")
+                .param("reps", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.exercise.name").value("Query Count 1"));
+        assertThat(entityLoads(User.class)).isZero();
+        assertThat(entityLoads(Exercise.class)).isZero();
+    }
+
+    private long entityLoads(Class<?> entity) {
+        return stats.getEntityStatistics(entity.getName()).getLoadCount();
+    }
+}
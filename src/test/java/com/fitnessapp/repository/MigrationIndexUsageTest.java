@@ -0,0 +1,334 @@
+package com.fitnessapp.repository;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.User;
+import com.fitnessapp.service.LastLoginTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for the migrations: the application runs on a schema built only by db/migration/h2, some rows
+// are loaded, then each per-user repository method is called and every
+// statement Hibernate sent for it is replayed under EXPLAIN with the same parameters, to check it reads its
+// table through an index. Statements are captured by wrapping the DataSource, so the SQL is the real one.
+// Whole-table jobs (countByExercise, countByUserAndExercise, findBestWeightsByUserAndExercise, streamDailyTotals,
+// streamSetsForProgression) scan by design.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indexusage;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration/h2",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+class MigrationIndexUsageTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 2);
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 1, 5, 0, 0);
+
+    // Every statement prepared through the DataSource since the last clear()
+    private static final List<Executed> EXECUTED = new CopyOnWriteArrayList<>();
+    private static boolean seeded;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private WorkoutSessionRepository workoutSessionRepository;
+
+    @Autowired
+    private PersonalRecordRepository personalRecordRepository;
+
+    @Autowired
+    private ExerciseUsageCountRepository exerciseUsageCountRepository;
+
+    @Autowired
+    private UserExerciseUsageCountRepository userExerciseUsageCountRepository;
+
+    @Autowired
+    private DailyExerciseRollupRepository dailyExerciseRollupRepository;
+
+    @Autowired
+    private WeeklyTrainingRollupRepository weeklyTrainingRollupRepository;
+
+    @Autowired
+    private ExerciseProgressionRepository exerciseProgressionRepository;
+
+    @Autowired
+    private LastLoginTracker lastLoginTracker;
+
+    // A repository call made by a test case
+    interface Call {
+        void run(MigrationIndexUsageTest t);
+    }
+
+    // A prepared statement as sent: its SQL and the parameter setters called on it, in order
+    record Executed(String sql, List<Setter> setters) {}
+
+    record Setter(Method method, Object[] args) {}
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capture(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // Connections handed out by the DataSource record each prepared statement and the parameters bound to it
+    private static DataSource capture(DataSource target) {
+        return proxy(DataSource.class, target, (method, args, result) ->
+                method.getName().equals("getConnection") ? proxy(Connection.class, (Connection) result, MigrationIndexUsageTest::record) : result);
+    }
+
+    private static Object record(Method method, Object[] args, Object result) {
+        if (!method.getName().equals("prepareStatement") || args == null || !(args[0] instanceof String sql)) {
+            return result;
+        }
+        List<Setter> setters = new ArrayList<>();
+        EXECUTED.add(new Executed(sql, setters));
+        return proxy(PreparedStatement.class, (PreparedStatement) result, (m, a, r) -> {
+            if (m.getName().startsWith("set") && a != null && a.length >= 2 && a[0] instanceof Integer) {
+                setters.add(new Setter(m, a));
+            }
+            return r;
+        });
+    }
+
+    // Runs after each call on a proxied JDBC object and may replace its result
+    interface After {
+        Object apply(Method method, Object[] args, Object result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, After after) {
+        InvocationHandler handler = (p, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return after.apply(method, args, result);
+        };
+        return (T) Proxy.newProxyInstance(MigrationIndexUsageTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("INSERT INTO \"user\" (id, username, password) " +
+                "SELECT x, 'user' || x, 'secret' FROM SYSTEM_RANGE(1, 200) r(x)");
+        jdbc.execute("INSERT INTO exercise (id, name, category) " +
+                "SELECT x, 'exercise ' || x, 'cat' || MOD(x, 6) FROM SYSTEM_RANGE(1, 40) r(x)");
+        jdbc.execute("INSERT INTO workout (id, exercise_id, user_id, username, weight, reps, \"timestamp\", " +
+                "personal_record, rest_seconds) " +
+                "SELECT x, MOD(x, 40) + 1, MOD(x, 200) + 1, 'user' || (MOD(x, 200) + 1), MOD(x, 120), 8, " +
+                "DATEADD('MINUTE', x, TIMESTAMP '2024-01-01 00:00:00'), FALSE, 90 FROM SYSTEM_RANGE(1, 20000) r(x)");
+        jdbc.execute("INSERT INTO workout_session (id, user_id, username, created_at) " +
+                "SELECT x, MOD(x, 200) + 1, 'user' || (MOD(x, 200) + 1), " +
+                "DATEADD('HOUR', x, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, 2000) r(x)");
+        jdbc.execute("INSERT INTO personal_record (id, username, exercise_id, best_weight) " +
+                "SELECT x, 'user' || (MOD(x, 200) + 1), x / 200 + 1, 100 FROM SYSTEM_RANGE(0, 7999) r(x)");
+        jdbc.execute("INSERT INTO exercise_usage_count (id, exercise_id, category, use_count) " +
+                "SELECT x, x, 'cat' || MOD(x, 6), x * 10 FROM SYSTEM_RANGE(1, 40) r(x)");
+        jdbc.execute("INSERT INTO user_exercise_usage_count (id, username, exercise_id, category, use_count) " +
+                "SELECT x, 'user' || (MOD(x, 200) + 1), x / 200 + 1, 'cat' || MOD(x / 200 + 1, 6), 5 " +
+                "FROM SYSTEM_RANGE(0, 7999) r(x)");
+        jdbc.execute("INSERT INTO daily_exercise_rollup (id, username, exercise_id, training_day, set_count, total_reps, " +
+                "total_volume, max_weight) " +
+                "SELECT x, 'user' || (MOD(x, 200) + 1), MOD(x / 200, 40) + 1, DATEADD('DAY', x / 8000, DATE '2024-01-01'), " +
+                "3, 24, 2400, 100 FROM SYSTEM_RANGE(0, 19999) r(x)");
+        jdbc.execute("INSERT INTO weekly_training_rollup (id, username, week_start, set_count, total_reps, total_volume, max_weight) " +
+                "SELECT x, 'user' || (MOD(x, 200) + 1), DATEADD('WEEK', x / 200, DATE '2024-01-01'), 12, 96, 9600, 100 " +
+                "FROM SYSTEM_RANGE(0, 9999) r(x)");
+        jdbc.execute("INSERT INTO exercise_progression (id, username, exercise_id, formula, best_e1rm, sets_counted, state) " +
+                "SELECT x, 'user' || (MOD(x, 200) + 1), x / 200 + 1, 'EPLEY', 120, 10, '19800:120' FROM SYSTEM_RANGE(0, 7999) r(x)");
+        jdbc.execute("ANALYZE");
+        seeded = true;
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+            query("UserRepository.findByUsername", "user",
+                t -> t.userRepository.findByUsername("user7")),
+            query("LastLoginTracker.flush", "user",
+                t -> {
+                    t.lastLoginTracker.record("user7", AT);
+                    t.lastLoginTracker.record("user8", AT);
+                    t.lastLoginTracker.flush();
+                }),
+            query("WorkoutRepository.findByUsernameOrderByTimestampDesc", "workout",
+                t -> t.workoutRepository.findByUsernameOrderByTimestampDesc("user7")),
+            query("WorkoutRepository.findByUsernameAndExerciseOrderByWeightDesc", "workout",
+                t -> t.workoutRepository.findByUsernameAndExerciseOrderByWeightDesc("user7", t.exercise(8))),
+            query("WorkoutRepository.findByUserOrderByTimestampDesc", "workout",
+                t -> t.workoutRepository.findByUserOrderByTimestampDesc(t.user(7))),
+            query("WorkoutRepository.findByUserAndExerciseOrderByWeightDesc", "workout",
+                t -> t.workoutRepository.findByUserAndExerciseOrderByWeightDesc(t.user(7), t.exercise(8))),
+            query("WorkoutRepository.findHistoryViews", "workout",
+                t -> t.workoutRepository.findHistoryViews("user7")),
+            query("WorkoutRepository.findHistoryViewsByExercise", "workout",
+                t -> t.workoutRepository.findHistoryViewsByExercise("user7", 8L)),
+            query("WorkoutRepository.findHistoryPage", "workout",
+                t -> t.workoutRepository.findHistoryPage("user7", LocalDateTime.of(1970, 1, 1, 0, 0), AT, 5000L, Limit.of(51))),
+            query("WorkoutRepository.findHistoryPageByExercise", "workout",
+                t -> t.workoutRepository.findHistoryPageByExercise("user7", 8L, LocalDateTime.of(1970, 1, 1, 0, 0), AT, 5000L, Limit.of(51))),
+            query("WorkoutRepository.streamByUsername", "workout",
+                t -> {
+                    try (Stream<?> rows = t.workoutRepository.streamByUsername("user7")) {
+                        rows.findFirst();
+                    }
+                }),
+            query("WorkoutSessionRepository.streamByUsername", "workout_session",
+                t -> {
+                    try (Stream<?> rows = t.workoutSessionRepository.streamByUsername("user7")) {
+                        rows.findFirst();
+                    }
+                }),
+            query("PersonalRecordRepository.findByUsernameAndExerciseId", "personal_record",
+                t -> t.personalRecordRepository.findByUsernameAndExerciseId("user7", 8L)),
+            query("PersonalRecordRepository.raiseBestWeight", "personal_record",
+                t -> t.personalRecordRepository.raiseBestWeight("user7", 8L, 140, AT)),
+            query("ExerciseUsageCountRepository.findByCategoryOrderByUseCountDescExerciseIdAsc", "exercise_usage_count",
+                t -> t.exerciseUsageCountRepository.findByCategoryOrderByUseCountDescExerciseIdAsc("cat3")),
+            query("ExerciseUsageCountRepository.add", "exercise_usage_count",
+                t -> t.exerciseUsageCountRepository.add(8L, "cat2", 1)),
+            query("ExerciseUsageCountRepository.increment", "exercise_usage_count",
+                t -> t.exerciseUsageCountRepository.increment(8L, 1)),
+            query("UserExerciseUsageCountRepository.findByUsernameAndCategoryOrderByUseCountDescExerciseIdAsc",
+                "user_exercise_usage_count",
+                t -> t.userExerciseUsageCountRepository.findByUsernameAndCategoryOrderByUseCountDescExerciseIdAsc("user7", "cat3")),
+            query("UserExerciseUsageCountRepository.add", "user_exercise_usage_count",
+                t -> t.userExerciseUsageCountRepository.add("user7", 8L, "cat2", 1)),
+            query("UserExerciseUsageCountRepository.increment", "user_exercise_usage_count",
+                t -> t.userExerciseUsageCountRepository.increment("user7", 8L, 1)),
+            query("DailyExerciseRollupRepository.add", "daily_exercise_rollup",
+                t -> t.dailyExerciseRollupRepository.add("user7", 8L, DAY, 1, 8, 800, 100)),
+            query("DailyExerciseRollupRepository.findDailyTotals", "daily_exercise_rollup",
+                t -> t.dailyExerciseRollupRepository.findDailyTotals("user7", DAY.minusDays(1), DAY.plusDays(29))),
+            query("DailyExerciseRollupRepository.findDailyByExercise", "daily_exercise_rollup",
+                t -> t.dailyExerciseRollupRepository.findDailyByExercise("user7", 8L, DAY.minusDays(1), DAY.plusDays(29))),
+            query("WeeklyTrainingRollupRepository.add", "weekly_training_rollup",
+                t -> t.weeklyTrainingRollupRepository.add("user7", LocalDate.of(2024, 1, 8), 1, 8, 800, 100)),
+            query("WeeklyTrainingRollupRepository.findWeeks", "weekly_training_rollup",
+                t -> t.weeklyTrainingRollupRepository.findWeeks("user7", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 30))),
+            query("ExerciseProgressionRepository.findByUsernameAndExerciseId", "exercise_progression",
+                t -> t.exerciseProgressionRepository.findByUsernameAndExerciseId("user7", 8L)),
+            query("ExerciseProgressionRepository.findByUsernameOrderByExerciseId", "exercise_progression",
+                t -> t.exerciseProgressionRepository.findByUsernameOrderByExerciseId("user7")),
+            query("ExerciseProgressionRepository.lockForUpdate", "exercise_progression",
+                t -> t.exerciseProgressionRepository.lockForUpdate("user7", List.of(8L, 9L)))
+        );
+    }
+
+    private static Arguments query(String name, String table, Call call) {
+        return Arguments.of(name, table, call);
+    }
+
+    private User user(long id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    private Exercise exercise(long id) {
+        return exerciseRepository.getReferenceById(id);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    @DisplayName("Repository query reads its table through an index")
+    void usesIndex(String query, String table, Call call) throws SQLException {
+        EXECUTED.clear();
+        // Writes are rolled back so every case sees the seeded rows
+        transactionTemplate.executeWithoutResult(status -> {
+            call.run(this);
+            status.setRollbackOnly();
+        });
+
+        List<Executed> statements = EXECUTED.stream()
+                .filter(statement -> statement.sql().contains("\"" + table + "\""))
+                .toList();
+        assertThat(statements).as("%s sent no statement on %s", query, table).isNotEmpty();
+        for (Executed statement : statements) {
+            String plan = explain(statement);
+            // H2 marks a full scan as /* public.<table>.tableScan */; identifier quoting varies, so drop it
+            assertThat(plan.replace("\"", ""))
+                .as("%s plan:%n%s", query, plan)
+                .doesNotContainIgnoringCase("public." + table + ".tableScan");
+        }
+    }
+
+    // Plan of a captured statement with its parameters bound again. H2 cannot EXPLAIN a locking read,
+    // so FOR UPDATE is left out (it does not change the access path).
+    private String explain(Executed statement) throws SQLException {
+        String sql = statement.sql();
+        int forUpdate = sql.toLowerCase(Locale.ROOT).lastIndexOf(" for update");
+        if (forUpdate >= 0) {
+            sql = sql.substring(0, forUpdate);
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Setter setter : statement.setters()) {
+                setter.method().invoke(explain, setter.args());
+            }
+            StringBuilder plan = new StringBuilder(sql).append('\n');
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot bind parameters of " + sql, e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.AuthenticatedUser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// By myself
+// Test class for the access tokens: round trip, expiry, tampering and secrets
+class AccessTokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2024-03-04T10:00:00Z");
+
+    @Test
+    @DisplayName("A token names the user it was issued to until it expires")
+    void roundTripAndExpiry() {
+        AccessTokenService tokens = new AccessTokenService(SECRET, 60);
+        String token = tokens.issue(42L, "alice:smith", NOW);
+
+        assertThat(tokens.verify(token, NOW)).isEqualTo(new AuthenticatedUser(42L, "alice:smith"));
+        assertThat(tokens.verify(token, NOW.plusSeconds(3599))).isNotNull();
+        assertThat(tokens.verify(token, NOW.plusSeconds(3600))).isNull();
+    }
+
+    @Test
+    @DisplayName("Tampered, truncated or foreign tokens are rejected")
+    void rejectsForgedTokens() {
+        AccessTokenService tokens = new AccessTokenService(SECRET, 60);
+        String token = tokens.issue(42L, "alice", NOW);
+        String signature = token.substring(token.indexOf('.'));
+
+        String otherPayload = tokens.issue(43L, "bob", NOW);
+        assertThat(tokens.verify(otherPayload.substring(0, otherPayload.indexOf('.')) + signature, NOW)).isNull();
+        assertThat(tokens.verify(token.substring(0, token.length() - 2), NOW)).isNull();
+        assertThat(tokens.verify(token + ".x", NOW)).isNull();
+        assertThat(tokens.verify("not a token", NOW)).isNull();
+        assertThat(tokens.verify(null, NOW)).isNull();
+
+        AccessTokenService otherSecret = new AccessTokenService("fedcba9876543210fedcba9876543210", 60);
+        assertThat(otherSecret.verify(token, NOW)).isNull();
+    }
+
+    @Test
+    @DisplayName("Short secrets are refused; no secret means a random one")
+    void secrets() {
+        assertThatThrownBy(() -> new AccessTokenService("too-short", 60)).isInstanceOf(IllegalStateException.class);
+
+        AccessTokenService first = new AccessTokenService("", 60);
+        AccessTokenService second = new AccessTokenService("", 60);
+        String token = first.issue(1L, "alice", NOW);
+        assertThat(first.verify(token, NOW)).isNotNull();
+        assertThat(second.verify(token, NOW)).isNull();
+    }
+}
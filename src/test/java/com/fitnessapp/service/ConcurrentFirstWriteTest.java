@@ -0,0 +1,175 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.PopularityReconciliation;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.ExerciseUsageCountRepository;
+import com.fitnessapp.repository.PersonalRecordRepository;
+import com.fitnessapp.repository.UserExerciseUsageCountRepository;
+import com.fitnessapp.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for the derived tables written next to every logged set: the same user's sets logged at once
+// must all succeed and add up, instead of colliding on the unique key of a row none of them found
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:firstwrite;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+class ConcurrentFirstWriteTest {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private WorkoutLogService workoutLogService;
+
+    @Autowired
+    private ExercisePopularityService exercisePopularityService;
+
+    @Autowired
+    private ExerciseUsageCountRepository exerciseUsageCountRepository;
+
+    @Autowired
+    private UserExerciseUsageCountRepository userExerciseUsageCountRepository;
+
+    @Autowired
+    private PersonalRecordRepository personalRecordRepository;
+
+    @Autowired
+    private TrainingRollupService trainingRollupService;
+
+    @Autowired
+    private ProgressionService progressionService;
+
+    // Runs the same write in WRITERS threads released together; rethrows the first failure
+    private void concurrently(Runnable write) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                writes.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    write.run();
+                }, pool));
+            }
+            start.countDown();
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private UserSnapshot user(String username) {
+        return UserSnapshot.of(userRepository.save(new User(username, "p123456")));
+    }
+
+    private Exercise exercise(String name, String category) {
+        Exercise exercise = new Exercise();
+        exercise.setName(name);
+        exercise.setCategory(category);
+        return exerciseRepository.save(exercise);
+    }
+
+    @Test
+    @DisplayName("Popularity counters: first uses add up, global counts are flushed and reconciled by correction")
+    void popularityCounters() throws Exception {
+        UserSnapshot user = user("racer");
+        Exercise exercise = exercise("Race Popular", "racecat");
+
+        concurrently(() -> workoutLogService.logSet(user, exercise, 50, 5, 60, LocalDateTime.now()));
+
+        assertThat(userExerciseUsageCountRepository.findByUsernameAndCategoryOrderByUseCountDescExerciseIdAsc("racer", "racecat"))
+                .singleElement().extracting(c -> c.getUseCount()).isEqualTo((long) WRITERS);
+        // Buffered global counts are visible before the flush
+        assertThat(exercisePopularityService.popularExcludingUser("racecat", "nobody")).extracting(Exercise::getId)
+                .containsExactly(exercise.getId());
+        exercisePopularityService.flush();
+        assertThat(exerciseUsageCountRepository.findByCategoryOrderByUseCountDescExerciseIdAsc("racecat"))
+                .singleElement().extracting(c -> c.getUseCount()).isEqualTo((long) WRITERS);
+
+        // Knock both counters off and let reconcile correct them by the difference
+        transactionTemplate.executeWithoutResult(status -> {
+            exerciseUsageCountRepository.increment(exercise.getId(), 3);
+            userExerciseUsageCountRepository.increment("racer", exercise.getId(), -2);
+        });
+        PopularityReconciliation result = exercisePopularityService.reconcile();
+        assertThat(result.drift()).contains(
+                "exercise " + exercise.getId() + ": stored=" + (WRITERS + 3) + ", actual=" + WRITERS,
+                "user racer/" + exercise.getId() + ": stored=" + (WRITERS - 2) + ", actual=" + WRITERS);
+        assertThat(exerciseUsageCountRepository.findByCategoryOrderByUseCountDescExerciseIdAsc("racecat"))
+                .singleElement().extracting(c -> c.getUseCount()).isEqualTo((long) WRITERS);
+        assertThat(userExerciseUsageCountRepository.findByUsernameAndCategoryOrderByUseCountDescExerciseIdAsc("racer", "racecat"))
+                .singleElement().extracting(c -> c.getUseCount()).isEqualTo((long) WRITERS);
+    }
+
+    @Test
+    @DisplayName("Personal records: concurrent first lifts create one index row and exactly one PR")
+    void personalRecords() throws Exception {
+        UserSnapshot user = user("lifter");
+        Exercise exercise = exercise("Race Lift", "racecat");
+        ConcurrentLinkedQueue<Workout> logged = new ConcurrentLinkedQueue<>();
+
+        concurrently(() -> logged.add(workoutLogService.logSet(user, exercise, 100, 3, 60, LocalDateTime.now())));
+
+        assertThat(logged).hasSize(WRITERS).filteredOn(Workout::isPersonalRecord).hasSize(1);
+        assertThat(personalRecordRepository.findByUsernameAndExerciseId("lifter", exercise.getId()).getBestWeight())
+                .isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("Training rollups: concurrent first sets of a day add up in one daily and one weekly row")
+    void trainingRollups() throws Exception {
+        UserSnapshot user = user("roller");
+        Exercise exercise = exercise("Race Rollup", "racecat");
+        LocalDate today = LocalDate.now();
+
+        concurrently(() -> workoutLogService.logSet(user, exercise, 40, 10, 60, LocalDateTime.now()));
+
+        assertThat(trainingRollupService.dailySeries("roller", exercise.getId(), today, today).sets())
+                .containsExactly((long) WRITERS);
+        assertThat(trainingRollupService.weeklySeries("roller", today, today).sets()).containsExactly((long) WRITERS);
+    }
+
+    @Test
+    @DisplayName("Progression: concurrent first sets of an exercise are all counted in one row")
+    void progression() throws Exception {
+        UserSnapshot user = user("progressor");
+        Exercise exercise = exercise("Race Progression", "racecat");
+
+        concurrently(() -> workoutLogService.logSet(user, exercise, 100, 1, 60, LocalDateTime.now()));
+
+        assertThat(progressionService.view("progressor", exercise.getId(), LocalDate.now()).setsCounted())
+                .isEqualTo((long) WRITERS);
+    }
+}
@@ -0,0 +1,148 @@
+package com.fitnessapp.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for the Space-Saving leaderboards: estimates checked against exact counts of the same stream
+class ExerciseLeaderboardTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long NOW = 1_720_000_000_000L;
+
+    @Test
+    @DisplayName("Space-Saving estimates stay within N / capacity of the exact counts")
+    void spaceSavingBounds() {
+        int capacity = 64;
+        SpaceSaving summary = new SpaceSaving(capacity);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        long[] keys = zipf(random, 500, 1.1, 100_000);
+        for (long key : keys) {
+            long sets = 1 + random.nextInt(3);
+            summary.offer(key, sets);
+            exact.merge(key, sets, Long::sum);
+        }
+
+        long total = summary.total();
+        long bound = total / capacity;
+        assertThat(summary.maxError()).isLessThanOrEqualTo(bound);
+        for (SpaceSaving.Counter c : summary.counters()) {
+            long actual = exact.get(c.key());
+            assertThat(actual).isBetween(c.count() - c.error(), c.count());
+            assertThat(c.count() - actual).isLessThanOrEqualTo(summary.maxError());
+        }
+        // Every key above N / capacity is tracked; untracked keys are below the smallest counter
+        exact.forEach((key, actual) -> {
+            if (summary.estimate(key) == 0) {
+                assertThat(actual).isLessThanOrEqualTo(summary.maxError());
+            }
+            if (actual > bound) {
+                assertThat(summary.estimate(key)).isPositive();
+            }
+        });
+
+        // The heavy hitters come out in the exact order
+        List<Long> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(5).map(Map.Entry::getKey).toList();
+        List<Long> estimatedTop = summary.counters().stream()
+                .sorted((a, b) -> Long.compare(b.count(), a.count()))
+                .limit(5).map(SpaceSaving.Counter::key).toList();
+        assertThat(estimatedTop).isEqualTo(exactTop);
+    }
+
+    @Test
+    @DisplayName("Trending scores are decayed per bucket, drop expired buckets and respect maxError")
+    void trendingMatchesExactDecayedCounts() {
+        ExerciseLeaderboard leaderboard = new ExerciseLeaderboard(16, 7, 24 * 60, 0.5);
+        Map<Long, Double> exact = new HashMap<>();
+        Random random = new Random(7);
+        for (int age = 0; age < 10; age++) {
+            long[] keys = zipf(random, 100, 1.2, 5_000);
+            for (long key : keys) {
+                leaderboard.record("legs", key, 1, NOW - age * DAY);
+                if (age < 7) {
+                    exact.merge(key, Math.pow(0.5, age), Double::sum);
+                }
+            }
+        }
+
+        List<ExerciseLeaderboard.Ranked> trending = leaderboard.trending("legs", 10, NOW);
+        assertThat(trending).hasSize(10);
+        double maxError = trending.get(0).maxError();
+        assertThat(maxError).isPositive();
+        for (ExerciseLeaderboard.Ranked r : trending) {
+            assertThat(Math.abs(r.score() - exact.get(r.exerciseId()))).isLessThanOrEqualTo(maxError + 1e-9);
+        }
+        assertThat(trending.get(0).exerciseId()).isEqualTo(0L);
+
+        // Ten days later every bucket has expired
+        assertThat(leaderboard.trending("legs", 10, NOW + 10 * DAY)).isEmpty();
+        assertThat(leaderboard.trending("arms", 10, NOW)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Recent sets outrank older ones with the same count")
+    void recentSetsWeighMore() {
+        ExerciseLeaderboard leaderboard = new ExerciseLeaderboard(16, 7, 24 * 60, 0.8);
+        leaderboard.record("back", 1L, 5, NOW - 3 * DAY);
+        leaderboard.record("back", 2L, 5, NOW);
+
+        assertThat(leaderboard.trending("back", 10, NOW))
+                .extracting(ExerciseLeaderboard.Ranked::exerciseId)
+                .containsExactly(2L, 1L);
+        // Few exercises: nothing evicted, scores are exact
+        assertThat(leaderboard.trending("back", 10, NOW).get(0).maxError()).isZero();
+    }
+
+    @Test
+    @DisplayName("The all-time board keeps the largest seeded counts and adds new sets")
+    void allTimeSeedAndRecord() {
+        ExerciseLeaderboard leaderboard = new ExerciseLeaderboard(3, 7, 24 * 60, 0.8);
+        assertThat(leaderboard.popular("chest")).isNull();
+
+        leaderboard.seed("chest", Map.of(1L, 10L, 2L, 30L, 3L, 20L, 4L, 5L));
+        leaderboard.record("chest", 3L, 15, NOW);
+
+        assertThat(leaderboard.popular("chest"))
+                .extracting(ExerciseLeaderboard.Ranked::exerciseId)
+                .containsExactly(3L, 2L, 1L);
+
+        leaderboard.resetAllTime();
+        assertThat(leaderboard.popular("chest")).isNull();
+    }
+
+    // n keys drawn from a Zipf(s) distribution over 0..distinct-1 (key 0 most frequent)
+    private static long[] zipf(Random random, int distinct, double s, int n) {
+        double[] cumulative = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cumulative[i] = sum;
+        }
+        long[] keys = new long[n];
+        for (int j = 0; j < n; j++) {
+            double u = random.nextDouble() * sum;
+            int lo = 0;
+            int hi = distinct - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            keys[j] = lo;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,104 @@
+package com.fitnessapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// By myself
+// Test class for the password hasher: BCrypt round trip, legacy plaintext passwords, rehash decisions and saturation
+class PasswordHasherTest {
+
+    private static PasswordHasher hasher(int strength, int threads, int queueSize, long timeoutMs) {
+        return new PasswordHasher(strength, 250, threads, queueSize, timeoutMs,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    @DisplayName("Hashes are salted BCrypt strings that match only their password")
+    void hashAndMatch() {
+        PasswordHasher hasher = hasher(4, 2, 8, 5000);
+        String first = hasher.hash("secret1");
+        String second = hasher.hash("secret1");
+
+        assertThat(first).startsWith("$2a$04$").hasSize(60).isNotEqualTo(second);
+        assertThat(hasher.matches("secret1", first)).isTrue();
+        assertThat(hasher.matches("secret2", first)).isFalse();
+        assertThat(hasher.needsRehash(first)).isFalse();
+        hasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Plaintext passwords still match and are flagged for rehash, as are weaker hashes")
+    void legacyPasswords() {
+        PasswordHasher weak = hasher(4, 1, 8, 5000);
+        PasswordHasher strong = hasher(5, 1, 8, 5000);
+
+        assertThat(strong.matches("secret1", "secret1")).isTrue();
+        assertThat(strong.matches("secret2", "secret1")).isFalse();
+        assertThat(strong.matches(null, "secret1")).isFalse();
+        assertThat(strong.needsRehash("secret1")).isTrue();
+
+        String weakHash = weak.hash("secret1");
+        assertThat(strong.matches("secret1", weakHash)).isTrue();
+        assertThat(strong.needsRehash(weakHash)).isTrue();
+        weak.shutdown();
+        strong.shutdown();
+    }
+
+    @Test
+    @DisplayName("Calibration stays within the allowed strengths")
+    void calibration() {
+        assertThat(PasswordHasher.calibrate(1)).isEqualTo(PasswordHasher.MIN_STRENGTH);
+        assertThat(PasswordHasher.calibrate(250)).isBetween(PasswordHasher.MIN_STRENGTH, 16);
+    }
+
+    @Test
+    @DisplayName("A job waiting past the timeout fails fast with Saturated")
+    void timeout() {
+        PasswordHasher hasher = hasher(12, 1, 8, 1);
+        assertThatThrownBy(() -> hasher.hash("secret1")).isInstanceOf(PasswordHasher.Saturated.class);
+        hasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("With the worker busy and the queue full, further jobs are rejected")
+    void queueFull() throws Exception {
+        PasswordHasher hasher = hasher(4, 1, 1, 30000);
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Pin the only worker, then fill the one queue slot
+        CompletableFuture<Object> blocker = CompletableFuture.supplyAsync(() -> hasher.run(() -> {
+            busy.countDown();
+            return release.await(30, TimeUnit.SECONDS);
+        }), clients);
+        assertThat(busy.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.hash("secret1"), clients);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (hasher.queued() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(hasher.queued()).isEqualTo(1);
+
+        assertThatThrownBy(() -> hasher.hash("secret2")).isInstanceOf(PasswordHasher.Saturated.class);
+
+        release.countDown();
+        assertThat(blocker.get(10, TimeUnit.SECONDS)).isEqualTo(true);
+        // Checked off the pool under test, so the verification cannot be turned away itself
+        assertThat(BCrypt.checkpw("secret1", queued.get(10, TimeUnit.SECONDS))).isTrue();
+        clients.shutdown();
+        hasher.shutdown();
+    }
+}
@@ -0,0 +1,71 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.ExerciseProgression;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.repository.ExerciseProgressionRepository;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for a change of the e1RM formula: rows computed with the old one keep it until the rebuild
+// that runs at startup, instead of being started over by the next set
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:formulachange;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "fitnessapp.progression.formula=brzycki"
+})
+class ProgressionFormulaChangeTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private ExerciseProgressionRepository progressionRepository;
+
+    @Autowired
+    private WorkoutLogService workoutLogService;
+
+    @Autowired
+    private ProgressionService progressionService;
+
+    @Test
+    @DisplayName("Rows of the old formula keep counting with it until the startup rebuild")
+    void oldFormulaUntilRebuild() {
+        UserSnapshot user = UserSnapshot.of(userRepository.save(new User("formula", "p123456")));
+        Exercise exercise = new Exercise();
+        exercise.setName("Formula Squat");
+        exercise.setCategory("legs");
+        exercise = exerciseRepository.save(exercise);
+
+        // A row left by an instance that used epley
+        workoutLogService.logSet(user, exercise, 100, 5, 60, LocalDateTime.now());
+        ExerciseProgression row = progressionRepository.findByUsernameAndExerciseId("formula", exercise.getId());
+        row.setFormula("EPLEY");
+        row.setBestE1rm(116.67);
+        progressionRepository.save(row);
+
+        workoutLogService.logSet(user, exercise, 90, 5, 60, LocalDateTime.now());
+        row = progressionRepository.findByUsernameAndExerciseId("formula", exercise.getId());
+        assertThat(row.getFormula()).isEqualTo("EPLEY");
+        assertThat(row.getSetsCounted()).isEqualTo(2);
+        assertThat(row.getBestE1rm()).isEqualTo(116.67); // epley: 100 * (1 + 5 / 30), not brzycki's 112.5
+
+        progressionService.rebuildIfFormulaChanged();
+        row = progressionRepository.findByUsernameAndExerciseId("formula", exercise.getId());
+        assertThat(row.getFormula()).isEqualTo("BRZYCKI");
+        assertThat(row.getSetsCounted()).isEqualTo(2);
+        assertThat(row.getBestE1rm()).isEqualTo(112.5); // brzycki: 100 * 36 / 32
+    }
+}
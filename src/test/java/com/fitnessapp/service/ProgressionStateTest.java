@@ -0,0 +1,73 @@
+package com.fitnessapp.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for the e1RM progression state: per-day tops, bounded size, snapshot round trip and trend statistics
+class ProgressionStateTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Test
+    @DisplayName("Each day keeps its best e1RM and days stay in order")
+    void keepsDailyTopInOrder() {
+        ProgressionState state = new ProgressionState();
+        state.add(DAY.plusDays(5), 100);
+        state.add(DAY, 90);
+        state.add(DAY.plusDays(5), 95);   // lighter set on a day already seen
+        state.add(DAY.plusDays(2), 92.346);
+
+        assertThat(state.sessionDates()).containsExactly(DAY, DAY.plusDays(2), DAY.plusDays(5));
+        assertThat(state.sessionTops()).containsExactly(90.0, 92.35, 100.0);
+    }
+
+    @Test
+    @DisplayName("Only the most recent sessions are kept")
+    void boundedSize() {
+        ProgressionState state = new ProgressionState();
+        for (int i = 0; i < ProgressionState.CAPACITY + 10; i++) {
+            state.add(DAY.plusDays(i), 100 + i);
+        }
+        state.add(DAY, 500); // older than everything kept: ignored
+
+        assertThat(state.size()).isEqualTo(ProgressionState.CAPACITY);
+        assertThat(state.sessionDates().get(0)).isEqualTo(DAY.plusDays(10));
+        assertThat(state.sessionTops()).doesNotContain(500.0);
+    }
+
+    @Test
+    @DisplayName("A decoded snapshot equals the encoded state")
+    void snapshotRoundTrip() {
+        ProgressionState state = new ProgressionState();
+        for (int i = 0; i < ProgressionState.CAPACITY; i++) {
+            state.add(DAY.plusDays(i * 3L), 120.0 + i / 3.0);
+        }
+        String snapshot = state.encode();
+
+        assertThat(snapshot.length()).isLessThan(1024);
+        assertThat(ProgressionState.decode(snapshot).encode()).isEqualTo(snapshot);
+        assertThat(ProgressionState.decode("").size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rolling average covers the last 4 weeks and slope the last sessions")
+    void trendStatistics() {
+        ProgressionState state = new ProgressionState();
+        state.add(DAY, 80);                 // outside the window below
+        state.add(DAY.plusDays(30), 100);
+        state.add(DAY.plusDays(33), 102);
+        state.add(DAY.plusDays(36), 104);
+
+        LocalDate today = DAY.plusDays(40);
+        assertThat(state.rollingAverage(today, 28)).isEqualTo(102.0);
+        assertThat(state.sessionsWithin(today, 28)).isEqualTo(3);
+        assertThat(state.slope(3)).isEqualTo(2.0);
+        assertThat(state.rollingAverage(DAY.plusDays(200), 28)).isNull();
+        assertThat(new ProgressionState().slope(6)).isNull();
+    }
+}
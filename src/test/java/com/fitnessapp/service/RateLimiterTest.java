@@ -0,0 +1,111 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.service.RateLimiter.Route;
+import com.fitnessapp.service.RateLimiter.Scope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for the token-bucket rate limiter: bursts, refill, separate keys, concurrency and metrics
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // auth: 3 per IP, 2 per user, both refilling one token per second; log per IP switched off
+    private RateLimiter limiter(boolean enabled) {
+        return new RateLimiter(enabled, 1000, 10, 3, 60, 2, 60, 0, 0, 5, 60, registry);
+    }
+
+    private double rejections(String route, String scope) {
+        return registry.get("fitnessapp.rate.limit.rejections").tag("route", route).tag("scope", scope).counter().count();
+    }
+
+    @Test
+    @DisplayName("A burst up to the capacity passes, then tokens come back at the refill rate")
+    void burstThenRefill() {
+        RateLimiter limiter = limiter(true);
+        long t = 0;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "10.0.0.1", t)).isZero();
+        }
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "10.0.0.1", t)).isEqualTo(1000);
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "10.0.0.1", t + SECOND / 2)).isEqualTo(500);
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "10.0.0.1", t + SECOND)).isZero();
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "10.0.0.1", t + SECOND)).isPositive();
+
+        // A long pause refills only up to the capacity
+        t += 100 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "10.0.0.1", t)).isZero();
+        }
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "10.0.0.1", t)).isPositive();
+        assertThat(rejections("auth", "ip")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Clients, scopes and routes have their own buckets; disabled limits always pass")
+    void separateBuckets() {
+        RateLimiter limiter = limiter(true);
+        for (int i = 0; i < 2; i++) {
+            assertThat(limiter.tryAcquire(Route.AUTH, Scope.USER, "alice", 0)).isZero();
+        }
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.USER, "alice", 0)).isPositive();
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.USER, "bob", 0)).isZero();
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.IP, "alice", 0)).isZero();
+        assertThat(limiter.tryAcquire(Route.LOG, Scope.USER, "alice", 0)).isZero();
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(Route.LOG, Scope.IP, "10.0.0.1", 0)).isZero(); // capacity 0: off
+        }
+        assertThat(limiter.tryAcquire(Route.AUTH, Scope.USER, null, 0)).isZero();
+
+        RateLimiter disabled = limiter(false);
+        for (int i = 0; i < 10; i++) {
+            assertThat(disabled.tryAcquire(Route.AUTH, Scope.USER, "alice", 0)).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent requests never take more tokens than the bucket holds")
+    void concurrentAcquire() throws Exception {
+        RateLimiter limiter = new RateLimiter(true, 1000, 10, 0, 0, 0, 0, 0, 0, 500, 0.001, registry);
+        int threads = 16;
+        int attempts = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int taken = 0;
+                for (int j = 0; j < attempts; j++) {
+                    if (limiter.tryAcquire(Route.LOG, Scope.USER, "alice", 0) == 0) {
+                        taken++;
+                    }
+                }
+                return taken;
+            }));
+        }
+        start.countDown();
+        int taken = 0;
+        for (Future<Integer> result : results) {
+            taken += result.get();
+        }
+        pool.shutdown();
+
+        assertThat(taken).isEqualTo(500);
+        assertThat(rejections("log", "user")).isEqualTo(threads * attempts - 500);
+    }
+}
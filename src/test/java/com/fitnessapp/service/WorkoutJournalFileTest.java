@@ -0,0 +1,103 @@
+package com.fitnessapp.service;
+
+import com.fitnessapp.model.JournaledSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// By myself
+// Test class for the write-behind journal: replay after a restart, torn writes, reset and a full journal
+class WorkoutJournalFileTest {
+
+    private static final int CAPACITY = 64 * 1024;
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 1, 18, 30, 15, 123_456_789);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Sets past the checkpoint are replayed in order after a restart")
+    void replaysPendingSets() throws Exception {
+        Path file = dir.resolve("journal.bin");
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(file, CAPACITY, false)) {
+            assertThat(journal.recover(0)).isEmpty();
+            journal.append("alice", 1L, 100.0, 5, 90, AT, null);
+            journal.append("bob", 2L, 60.0, 8, 60, AT.plusSeconds(1), null);
+            journal.append("alice", 1L, 105.0, 3, 120, AT.plusSeconds(2), "session-1");
+        }
+
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(file, CAPACITY, false)) {
+            List<JournaledSet> pending = journal.recover(1);
+            assertThat(pending).extracting(JournaledSet::sequence).containsExactly(2L, 3L);
+            assertThat(pending.get(1)).isEqualTo(new JournaledSet(3, "alice", 1L, 105.0, 3, 120, AT.plusSeconds(2), "session-1"));
+
+            // New sets continue the sequence after the replayed ones
+            assertThat(journal.append("bob", 2L, 65.0, 8, 60, AT.plusSeconds(3), null).sequence()).isEqualTo(4L);
+        }
+    }
+
+    @Test
+    @DisplayName("A torn last record is ignored on recovery")
+    void ignoresTornRecord() throws Exception {
+        Path file = dir.resolve("journal.bin");
+        int tornAt;
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(file, CAPACITY, false)) {
+            journal.recover(0);
+            journal.append("alice", 1L, 100.0, 5, 90, AT, null);
+            tornAt = journal.bytesUsed();
+            journal.append("alice", 1L, 110.0, 5, 90, AT, null);
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(tornAt + 20); // inside the second record's payload
+            raw.writeLong(0x0102030405060708L);
+        }
+
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(file, CAPACITY, false)) {
+            assertThat(journal.recover(0)).extracting(JournaledSet::sequence).containsExactly(1L);
+            assertThat(journal.bytesUsed()).isEqualTo(tornAt);
+            // The torn set was never acknowledged as applied, so its sequence is handed out again
+            assertThat(journal.append("alice", 1L, 110.0, 5, 90, AT, null).sequence()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    @DisplayName("After a reset old records are not replayed and sequences keep counting")
+    void resetKeepsSequence() throws Exception {
+        Path file = dir.resolve("journal.bin");
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(file, CAPACITY, false)) {
+            journal.recover(0);
+            for (int i = 0; i < 5; i++) {
+                journal.append("alice", 1L, 100.0 + i, 5, 90, AT, null);
+            }
+            journal.reset();
+            journal.append("alice", 1L, 200.0, 5, 90, AT, null);
+        }
+
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(file, CAPACITY, false)) {
+            List<JournaledSet> pending = journal.recover(5);
+            assertThat(pending).extracting(JournaledSet::sequence).containsExactly(6L);
+            assertThat(pending.get(0).weight()).isEqualTo(200.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Append returns null once the journal is full")
+    void fullJournal() throws Exception {
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(dir.resolve("small.bin"), 256, false)) {
+            journal.recover(0);
+            int appended = 0;
+            while (journal.append("alice", 1L, 100.0, 5, 90, AT, null) != null) {
+                appended++;
+            }
+            assertThat(appended).isPositive();
+            assertThat(journal.lastSequence()).isEqualTo(appended);
+        }
+    }
+}
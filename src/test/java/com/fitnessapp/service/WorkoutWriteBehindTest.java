@@ -0,0 +1,304 @@
+package com.fitnessapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitnessapp.model.AuthenticatedUser;
+import com.fitnessapp.model.Exercise;
+import com.fitnessapp.model.JournaledSet;
+import com.fitnessapp.model.User;
+import com.fitnessapp.model.UserSnapshot;
+import com.fitnessapp.model.Workout;
+import com.fitnessapp.model.WorkoutJournalCheckpoint;
+import com.fitnessapp.model.WorkoutJournalStatus;
+import com.fitnessapp.model.WorkoutSetRequest;
+import com.fitnessapp.repository.ExerciseRepository;
+import com.fitnessapp.repository.UserRepository;
+import com.fitnessapp.repository.WorkoutJournalCheckpointRepository;
+import com.fitnessapp.repository.WorkoutRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// By myself
+// Test class for write-behind set logging: 202 receipts, a full journal, the drain transaction, replay after
+// a restart and a set that never goes in. Scheduled drains are pushed out of the way; tests drain by hand.
+// Journals of other "instances" are driven through their own WorkoutWriteBehind on a file of their own.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "fitnessapp.workouts.write-behind.enabled=true",
+        "fitnessapp.workouts.write-behind.journal-size-mb=1",
+        "fitnessapp.workouts.write-behind.drain-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class WorkoutWriteBehindTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void journalFiles(DynamicPropertyRegistry registry) {
+        registry.add("fitnessapp.workouts.write-behind.journal-path", () -> dir.resolve("journal.bin").toString());
+        registry.add("fitnessapp.workouts.write-behind.dead-letter-path", () -> dir.resolve("dead-letter.log").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WorkoutWriteBehind workoutWriteBehind;
+
+    @Autowired
+    private WorkoutLogService workoutLogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Autowired
+    private WorkoutJournalCheckpointRepository checkpointRepository;
+
+    // Token of a stored user, as /api/auth/login issues it
+    private RequestPostProcessor token(String username) {
+        String token = accessTokenService.issue(userRepository.findByUsername(username).getId(), username);
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return request;
+        };
+    }
+
+    private UserSnapshot user(String username) {
+        return UserSnapshot.of(userRepository.save(new User(username, "p123456")));
+    }
+
+    private Exercise exercise(String name) {
+        Exercise exercise = new Exercise();
+        exercise.setName(name);
+        exercise.setCategory("wb");
+        return exerciseRepository.save(exercise);
+    }
+
+    private ResultActions logSet(String username, Exercise exercise, String weight) throws Exception {
+        return mockMvc.perform(post("/api/workouts/log").with(token(username))
+                .param("username", username)
+                .param("exerciseId", String.valueOf(exercise.getId()))
+                .param("weight", weight)
+                .param("reps", "5"));
+    }
+
+    private List<Double> weightsOf(String username) {
+        return workoutRepository.findAll().stream()
+                .filter(w -> username.equals(w.getUsername()))
+                .map(Workout::getWeight)
+                .toList();
+    }
+
+    private long checkpoint() {
+        return checkpointRepository.findById(WorkoutJournalCheckpoint.ID).orElseThrow().getAppliedThrough();
+    }
+
+    // Another instance's write-behind on its own journal file, as Spring would set it up
+    private WorkoutWriteBehind instance(Path journal, WorkoutLogService logService) throws Exception {
+        WorkoutWriteBehind instance = new WorkoutWriteBehind();
+        ReflectionTestUtils.setField(instance, "workoutLogService", logService);
+        ReflectionTestUtils.setField(instance, "checkpointRepository", checkpointRepository);
+        ReflectionTestUtils.setField(instance, "journalPath", journal.toString());
+        ReflectionTestUtils.setField(instance, "journalSizeMb", 1);
+        ReflectionTestUtils.setField(instance, "batchSize", 500);
+        ReflectionTestUtils.setField(instance, "maxAttempts", 2);
+        ReflectionTestUtils.setField(instance, "deadLetterPath", journal.resolveSibling(journal.getFileName() + ".dead").toString());
+        instance.open();
+        return instance;
+    }
+
+    @Test
+    @DisplayName("A logged set is acknowledged with 202 and a receipt, then written with its PR flag by the drain")
+    void acceptedThenDrained() throws Exception {
+        user("wbaccept");
+        Exercise exercise = exercise("WB Accept");
+
+        String body = logSet("wbaccept", exercise, "80")
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.sequence").isNumber())
+            .andExpect(jsonPath("$.exercise.name").value("WB Accept"))
+            .andExpect(jsonPath("$.id").doesNotExist())
+            .andReturn().getResponse().getContentAsString();
+        long sequence = objectMapper.readTree(body).get("sequence").asLong();
+        assertThat(workoutWriteBehind.status().appliedThrough()).isLessThan(sequence);
+        assertThat(weightsOf("wbaccept")).isEmpty();
+
+        workoutWriteBehind.drain();
+
+        assertThat(workoutWriteBehind.status().appliedThrough()).isGreaterThanOrEqualTo(sequence);
+        assertThat(workoutRepository.findAll()).filteredOn(w -> "wbaccept".equals(w.getUsername()))
+            .singleElement().extracting(Workout::isPersonalRecord).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("A batch is written after the sets acknowledged before it, so its PR flags see them")
+    void batchAfterJournaledSets() throws Exception {
+        user("wbbatch");
+        Exercise exercise = exercise("WB Batch");
+        logSet("wbbatch", exercise, "100").andExpect(status().isAccepted());
+
+        mockMvc.perform(post("/api/workouts/log/batch").with(token("wbbatch"))
+                .param("username", "wbbatch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(new WorkoutSetRequest(exercise.getId(), 90, 5, 60, 0)))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.personalRecords").value(0));
+        assertThat(weightsOf("wbbatch")).containsExactlyInAnyOrder(100.0, 90.0);
+    }
+
+    @Test
+    @DisplayName("A full journal answers 503 with Retry-After until the drain makes room")
+    void fullJournal() throws Exception {
+        user("wbfull");
+        Exercise exercise = exercise("WB Full");
+        // Sets of a user that does not exist: they fill the journal and are dropped by the drain
+        UserSnapshot filler = new AuthenticatedUser(0L, "wbfiller").toSnapshot();
+        while (workoutWriteBehind.append(filler, exercise, 1, 1, 0, null) != null) {
+            // fill up
+        }
+
+        logSet("wbfull", exercise, "50")
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        workoutWriteBehind.drain();
+        assertThat(workoutWriteBehind.status().journalBytesUsed()).isZero();
+        logSet("wbfull", exercise, "50").andExpect(status().isAccepted());
+        workoutWriteBehind.drain();
+        assertThat(weightsOf("wbfull")).containsExactly(50.0);
+    }
+
+    @Test
+    @DisplayName("Journaled sets and the checkpoint are written in one transaction")
+    void drainAndCheckpointCommitTogether() {
+        user("wbtx");
+        Exercise exercise = exercise("WB Transaction");
+        long before = checkpoint();
+        JournaledSet set = new JournaledSet(before + 1000, "wbtx", exercise.getId(), 70, 5, 60, LocalDateTime.now(), null);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            workoutLogService.logJournaled(List.of(set));
+            status.setRollbackOnly();
+        });
+        assertThat(weightsOf("wbtx")).isEmpty();
+        assertThat(checkpoint()).isEqualTo(before);
+
+        workoutLogService.logJournaled(List.of(set));
+        assertThat(weightsOf("wbtx")).containsExactly(70.0);
+        assertThat(checkpoint()).isEqualTo(before + 1000);
+    }
+
+    @Test
+    @DisplayName("Sets journaled before a crash are replayed in order on startup")
+    void replayOnStartup() throws Exception {
+        user("wbreplay");
+        Exercise exercise = exercise("WB Replay");
+        Path file = dir.resolve("replay.bin");
+        long last;
+        // The crashed instance: its sets made it to the journal only
+        try (WorkoutJournalFile journal = new WorkoutJournalFile(file, 1024 * 1024, false)) {
+            journal.recover(checkpoint());
+            journal.append("wbreplay", exercise.getId(), 100, 5, 60, LocalDateTime.now(), null);
+            last = journal.append("wbreplay", exercise.getId(), 90, 5, 60, LocalDateTime.now(), null).sequence();
+        }
+
+        WorkoutWriteBehind restarted = instance(file, workoutLogService);
+        try {
+            assertThat(restarted.status().pending()).isEqualTo(2);
+            assertThat(restarted.drain()).isEqualTo(2);
+        } finally {
+            restarted.close();
+        }
+
+        assertThat(workoutRepository.findAll()).filteredOn(w -> "wbreplay".equals(w.getUsername()))
+            .extracting(Workout::getWeight, Workout::isPersonalRecord)
+            .containsExactlyInAnyOrder(tuple(100.0, true), tuple(90.0, false));
+        assertThat(checkpoint()).isGreaterThanOrEqualTo(last);
+    }
+
+    @Test
+    @DisplayName("A set that keeps failing goes to the dead-letter file after max-attempts and the rest are written")
+    void poisonSetIsDeadLettered() throws Exception {
+        UserSnapshot user = user("wbpoison");
+        Exercise exercise = exercise("WB Poison");
+        AtomicLong poison = new AtomicLong(-1);
+        WorkoutLogService failing = new WorkoutLogService() {
+            @Override
+            public int logJournaled(List<JournaledSet> batch) {
+                if (batch.stream().anyMatch(set -> set.sequence() == poison.get())) {
+                    throw new IllegalStateException("cannot write set " + poison.get());
+                }
+                return workoutLogService.logJournaled(batch);
+            }
+
+            @Override
+            public void skipJournaled(long sequence) {
+                workoutLogService.skipJournaled(sequence);
+            }
+        };
+
+        Path file = dir.resolve("poison.bin");
+        WorkoutWriteBehind instance = instance(file, failing);
+        try {
+            instance.append(user, exercise, 60, 5, 60, null);
+            poison.set(instance.append(user, exercise, 65, 5, 60, null).sequence());
+            instance.append(user, exercise, 70, 5, 60, null);
+
+            // First failure: the batch stays queued
+            assertThat(instance.drain()).isZero();
+            assertThat(instance.status().pending()).isEqualTo(3);
+
+            // Second failure reaches max-attempts: the sets are written one by one, the bad one set aside
+            assertThat(instance.drain()).isEqualTo(3);
+            WorkoutJournalStatus status = instance.status();
+            assertThat(status.pending()).isZero();
+            assertThat(status.deadLettered()).isEqualTo(1);
+            assertThat(status.appliedThrough()).isEqualTo(poison.get() + 1);
+        } finally {
+            instance.close();
+        }
+
+        assertThat(weightsOf("wbpoison")).containsExactlyInAnyOrder(60.0, 70.0);
+        assertThat(Files.readString(dir.resolve("poison.bin.dead")))
+            .contains("sequence=" + poison.get()).contains("cannot write set");
+    }
+}